@@ -0,0 +1,128 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role;
+
+import io.cdap.cdap.api.security.AccessException;
+import io.cdap.cdap.proto.element.EntityType;
+import io.cdap.cdap.proto.id.ApplicationId;
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.security.Principal;
+import io.cdap.cdap.proto.security.StandardPermission;
+import io.cdap.cdap.security.authorization.ldap.role.group.GroupWithRolesProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link LDAPRoleAccessController} enforcement methods with growing amount of entities
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AccessControllerBenchmark {
+  private static final Principal PRINCIPAL = new Principal(BenchmarkFixture.USER, Principal.PrincipalType.USER);
+  private static final Set<StandardPermission> GET = Collections.singleton(StandardPermission.GET);
+
+  @Param({"10", "1000", "100000"})
+  private int entities;
+
+  @Param({"100"})
+  private int namespaces;
+
+  @Param({"10"})
+  private int groupsPerUser;
+
+  private GroupWithRolesProvider provider;
+  private LDAPRoleAccessController accessController;
+  private ApplicationId[] applications;
+  private NamespaceId[] namespaceIds;
+  private Set<EntityId> visibilityRequest;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    File config = BenchmarkFixture.writeRoleConfig(groupsPerUser, namespaces);
+    provider = BenchmarkFixture.startProvider(config);
+    accessController = BenchmarkFixture.createAccessController(provider,
+                                                               BenchmarkFixture.getUserGroups(groupsPerUser));
+
+    namespaceIds = new NamespaceId[namespaces];
+    for (int i = 0; i < namespaces; i++) {
+      namespaceIds[i] = new NamespaceId(BenchmarkFixture.getNamespace(i));
+    }
+
+    applications = new ApplicationId[entities];
+    visibilityRequest = new HashSet<>();
+    for (int i = 0; i < entities; i++) {
+      applications[i] = namespaceIds[i % namespaces].app(String.format("app%d", i));
+      visibilityRequest.add(applications[i]);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    provider.stop();
+  }
+
+  @Benchmark
+  public void enforce(Cursor cursor) throws AccessException {
+    accessController.enforce(applications[cursor.next(entities)], PRINCIPAL, GET);
+  }
+
+  @Benchmark
+  public void enforceOnParent(Cursor cursor) throws AccessException {
+    accessController.enforceOnParent(EntityType.APPLICATION, namespaceIds[cursor.next(namespaces)], PRINCIPAL,
+                                     StandardPermission.CREATE);
+  }
+
+  @Benchmark
+  public Set<? extends EntityId> isVisible() throws AccessException {
+    return accessController.isVisible(visibilityRequest, PRINCIPAL);
+  }
+
+  /**
+   * Per thread position in array of entities, so every invocation checks another entity
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    int next(int bound) {
+      position = position + 1 < bound ? position + 1 : 0;
+      return position;
+    }
+  }
+}
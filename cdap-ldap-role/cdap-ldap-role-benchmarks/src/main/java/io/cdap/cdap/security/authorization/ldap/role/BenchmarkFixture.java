@@ -0,0 +1,137 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role;
+
+import io.cdap.cdap.security.authorization.ldap.role.group.GroupWithRolesProvider;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
+import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPSearchConfig;
+import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPSearcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Generates role mapping config of configurable size and wires {@link LDAPRoleAccessController} to
+ * {@link StubLDAPClient}, so benchmarks measure only in-process evaluation.
+ */
+final class BenchmarkFixture {
+  static final String BASE_DN = "DC=benchmark,DC=local";
+  static final String USER = "benchmark";
+
+  private static final long LOAD_TIMEOUT_SECONDS = 30;
+
+  private BenchmarkFixture() {
+  }
+
+  static String getGroupDn(int group) {
+    return String.format("CN=group%d,OU=groups,%s", group, BASE_DN);
+  }
+
+  static String getNamespace(int namespace) {
+    return String.format("namespace%d", namespace);
+  }
+
+  /**
+   * Returns DNs of all groups the benchmark user is member of
+   */
+  static Set<String> getUserGroups(int groups) {
+    Set<String> result = new LinkedHashSet<>();
+    for (int group = 0; group < groups; group++) {
+      result.add(getGroupDn(group));
+    }
+    return result;
+  }
+
+  /**
+   * Writes role mapping config where every group gets 'developer' role in its share of namespaces
+   * and 'viewer' role in one more namespace
+   *
+   * @param groups     Amount of mapped groups
+   * @param namespaces Amount of namespaces
+   * @return Temporary config file, deleted on exit
+   */
+  static File writeRoleConfig(int groups, int namespaces) throws IOException {
+    File file = File.createTempFile("roles", ".yaml");
+    file.deleteOnExit();
+
+    try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      writer.write("roles:\n");
+      writer.write("  - name: developer\n");
+      writer.write("    permissions:\n");
+      writer.write("      - View Namespace\n");
+      writer.write("      - Create Pipeline\n");
+      writer.write("      - View Pipeline\n");
+      writer.write("      - Execute Pipeline\n");
+      writer.write("  - name: viewer\n");
+      writer.write("    permissions:\n");
+      writer.write("      - View Namespace\n");
+      writer.write("      - View Pipeline\n");
+      writer.write("mappings:\n");
+      for (int group = 0; group < groups; group++) {
+        writer.write(String.format("  - group: %s\n", getGroupDn(group)));
+        writer.write("    roles:\n");
+        writer.write("      - role: developer\n");
+        writer.write("        namespaces:\n");
+        for (int namespace = group % namespaces; namespace < namespaces; namespace += groups) {
+          writer.write(String.format("          - %s\n", getNamespace(namespace)));
+        }
+        writer.write("      - role: viewer\n");
+        writer.write("        namespaces:\n");
+        writer.write(String.format("          - %s\n", getNamespace((group + 1) % namespaces)));
+      }
+    }
+    return file;
+  }
+
+  /**
+   * Starts provider and waits until config is loaded
+   */
+  static GroupWithRolesProvider startProvider(File config) throws TimeoutException {
+    GroupWithRolesProvider provider = new GroupWithRolesProvider(config.getAbsolutePath(),
+                                                                 GroupWithRolesProvider.DEFAULT_UPDATE_INTERVAL_DELAY,
+                                                                 GroupWithRolesProvider.DEFAULT_UPDATE_INTERVAL,
+                                                                 TimeUnit.SECONDS.toMillis(LOAD_TIMEOUT_SECONDS),
+                                                                 new OperationMetrics());
+    provider.start();
+
+    if (!provider.isReady()) {
+      provider.stop();
+      throw new TimeoutException(String.format("Config '%s' was not loaded in %d seconds", config,
+                                               LOAD_TIMEOUT_SECONDS));
+    }
+    return provider;
+  }
+
+  /**
+   * Creates access controller which resolves {@link #USER} to given groups without calling LDAP
+   */
+  static LDAPRoleAccessController createAccessController(GroupWithRolesProvider provider, Set<String> groups) {
+    LDAPSearchConfig config = LDAPSearchConfig.builder()
+      .withUrl("ldap://localhost:389/")
+      .withSearchBaseDn(String.format("OU=users,%s", BASE_DN))
+      .build();
+    LDAPSearcher searcher = new LDAPSearcher(config, new StubLDAPClient(groups, config.getMemberAttribute()));
+    return new LDAPRoleAccessController(searcher, provider, false, false);
+  }
+}
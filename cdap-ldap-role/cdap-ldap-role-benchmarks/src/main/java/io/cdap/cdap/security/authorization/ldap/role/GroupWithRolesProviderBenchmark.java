@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role;
+
+import io.cdap.cdap.security.authorization.ldap.role.group.GroupWithRolesProvider;
+import io.cdap.cdap.security.authorization.ldap.role.group.PrincipalPermissions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark of {@link GroupWithRolesProvider#getPrincipalPermissions(Set)} with growing amount of user's groups
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GroupWithRolesProviderBenchmark {
+  @Param({"10", "100", "1000"})
+  private int groupsPerUser;
+
+  @Param({"100"})
+  private int namespaces;
+
+  private GroupWithRolesProvider provider;
+  private Set<String> groups;
+
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    File config = BenchmarkFixture.writeRoleConfig(groupsPerUser, namespaces);
+    provider = BenchmarkFixture.startProvider(config);
+    groups = BenchmarkFixture.getUserGroups(groupsPerUser);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    provider.stop();
+  }
+
+  @Benchmark
+  public PrincipalPermissions getPrincipalPermissions() {
+    return provider.getPrincipalPermissions(groups);
+  }
+}
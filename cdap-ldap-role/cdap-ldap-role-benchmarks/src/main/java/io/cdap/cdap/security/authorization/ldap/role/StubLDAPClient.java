@@ -0,0 +1,121 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role;
+
+import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPClient;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.BasicAttribute;
+import javax.naming.directory.BasicAttributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import javax.naming.directory.SearchControls;
+import javax.naming.directory.SearchResult;
+
+/**
+ * {@link LDAPClient} answering every user search with the same set of groups, without network round trips
+ */
+public class StubLDAPClient implements LDAPClient {
+  private final SearchResult result;
+
+  /**
+   * Constructor
+   *
+   * @param groups          Groups returned for every user
+   * @param memberAttribute Name of attribute holding groups
+   */
+  public StubLDAPClient(Set<String> groups, String memberAttribute) {
+    BasicAttribute memberOf = new BasicAttribute(memberAttribute);
+    groups.forEach(memberOf::add);
+
+    BasicAttributes attributes = new BasicAttributes(true);
+    attributes.put(memberOf);
+    result = new SearchResult("CN=user", null, attributes);
+  }
+
+  @Override
+  public DirContext getConnection() throws NamingException {
+    return new StubDirContext(result);
+  }
+
+  @Override
+  public void testConnection() {
+    // Nothing to test
+  }
+
+  /**
+   * Lazy {@link InitialDirContext} which never connects and returns the same search result
+   */
+  private static final class StubDirContext extends InitialDirContext {
+    private final SearchResult result;
+
+    StubDirContext(SearchResult result) throws NamingException {
+      super(true);
+      this.result = result;
+    }
+
+    @Override
+    public NamingEnumeration<SearchResult> search(String name, String filter, SearchControls cons) {
+      return new SingleResultEnumeration(result);
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+  }
+
+  /**
+   * {@link NamingEnumeration} over single {@link SearchResult}
+   */
+  private static final class SingleResultEnumeration implements NamingEnumeration<SearchResult> {
+    private final Iterator<SearchResult> iterator;
+
+    SingleResultEnumeration(SearchResult result) {
+      iterator = Collections.singleton(result).iterator();
+    }
+
+    @Override
+    public SearchResult next() {
+      return iterator.next();
+    }
+
+    @Override
+    public boolean hasMore() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public void close() {
+      // Nothing to close
+    }
+
+    @Override
+    public boolean hasMoreElements() {
+      return iterator.hasNext();
+    }
+
+    @Override
+    public SearchResult nextElement() {
+      return iterator.next();
+    }
+  }
+}
@@ -28,6 +28,8 @@ import io.cdap.cdap.proto.security.Role;
 import io.cdap.cdap.proto.security.StandardPermission;
 import io.cdap.cdap.security.authorization.ldap.role.group.GroupWithRolesProvider;
 import io.cdap.cdap.security.authorization.ldap.role.group.PrincipalPermissions;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.LDAPRoleMetrics;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
 import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPClient;
 import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPClientImpl;
 import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPSearchConfig;
@@ -57,6 +59,11 @@ import java.util.stream.Collectors;
 public class LDAPRoleAccessController implements AccessController {
   private static final Logger LOG = LoggerFactory.getLogger(LDAPRoleAccessController.class);
 
+  private final LDAPRoleMetrics metrics = new LDAPRoleMetrics();
+  private final OperationMetrics enforceMetrics = metrics.get(LDAPRoleMetrics.ENFORCE);
+  private final OperationMetrics enforceOnParentMetrics = metrics.get(LDAPRoleMetrics.ENFORCE_ON_PARENT);
+  private final OperationMetrics isVisibleMetrics = metrics.get(LDAPRoleMetrics.IS_VISIBLE);
+
   private LDAPSearcher searcherService;
   private GroupWithRolesProvider roleProvider;
 
@@ -64,6 +71,25 @@ public class LDAPRoleAccessController implements AccessController {
   private boolean loggingOnly;
   private boolean disablePermissionsPropagation;
 
+  public LDAPRoleAccessController() {
+  }
+
+  /**
+   * Constructor with already created services, used to run access controller without {@link AuthorizationContext}
+   *
+   * @param searcherService               {@link LDAPSearcher} for searching user's groups
+   * @param roleProvider                  Started {@link GroupWithRolesProvider}
+   * @param ignoreFullAccessUsers         If full access users should be ignored
+   * @param disablePermissionsPropagation If permissions propagation is disabled
+   */
+  LDAPRoleAccessController(LDAPSearcher searcherService, GroupWithRolesProvider roleProvider,
+                           boolean ignoreFullAccessUsers, boolean disablePermissionsPropagation) {
+    this.searcherService = searcherService;
+    this.roleProvider = roleProvider;
+    this.ignoreFullAccessUsers = ignoreFullAccessUsers;
+    this.disablePermissionsPropagation = disablePermissionsPropagation;
+  }
+
   @Override
   public void initialize(AuthorizationContext context) {
     printExtensionInfo();
@@ -74,7 +100,8 @@ public class LDAPRoleAccessController implements AccessController {
 
     LOG.info("Permission propagation is: '{}'", !disablePermissionsPropagation);
 
-    roleProvider = RoleAuthorizationUtil.createLDAPGroupRoleProvider(properties);
+    roleProvider = RoleAuthorizationUtil.createLDAPGroupRoleProvider(properties, metrics);
+    metrics.register();
 
     if (loggingOnly) {
       return;
@@ -83,9 +110,9 @@ public class LDAPRoleAccessController implements AccessController {
     roleProvider.start();
 
     LDAPSearchConfig searchConfig = createLDAPConfig(context);
-    LDAPClient ldapClient = new LDAPClientImpl(searchConfig);
+    LDAPClient ldapClient = new LDAPClientImpl(searchConfig, metrics.get(LDAPRoleMetrics.LDAP_CONNECTION));
     ldapClient.testConnection();
-    searcherService = new LDAPSearcher(searchConfig, ldapClient);
+    searcherService = new LDAPSearcher(searchConfig, ldapClient, metrics.get(LDAPRoleMetrics.LDAP_SEARCH));
   }
 
   @Override
@@ -93,11 +120,59 @@ public class LDAPRoleAccessController implements AccessController {
     if (!loggingOnly) {
       roleProvider.stop();
     }
+    metrics.unregister();
   }
 
   @Override
   public void enforce(EntityId entity, Principal principal, Set<? extends Permission> permissions)
     throws AccessException {
+    long startTime = System.nanoTime();
+    try {
+      enforcePermissions(entity, principal, permissions);
+    } catch (UnauthorizedException e) {
+      enforceMetrics.incrementDenials();
+      throw e;
+    } catch (RuntimeException e) {
+      enforceMetrics.incrementErrors();
+      throw e;
+    } finally {
+      enforceMetrics.recordLatency(startTime);
+    }
+  }
+
+  @Override
+  public void enforceOnParent(EntityType entityType, EntityId parentId, Principal principal, Permission permission)
+    throws AccessException {
+    long startTime = System.nanoTime();
+    try {
+      enforcePermissionOnParent(entityType, parentId, principal, permission);
+    } catch (UnauthorizedException e) {
+      enforceOnParentMetrics.incrementDenials();
+      throw e;
+    } catch (RuntimeException e) {
+      enforceOnParentMetrics.incrementErrors();
+      throw e;
+    } finally {
+      enforceOnParentMetrics.recordLatency(startTime);
+    }
+  }
+
+  @Override
+  public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal)
+    throws AccessException {
+    long startTime = System.nanoTime();
+    try {
+      return filterVisible(entityIds, principal);
+    } catch (RuntimeException e) {
+      isVisibleMetrics.incrementErrors();
+      throw e;
+    } finally {
+      isVisibleMetrics.recordLatency(startTime);
+    }
+  }
+
+  private void enforcePermissions(EntityId entity, Principal principal, Set<? extends Permission> permissions)
+    throws UnauthorizedException {
     String username = principal.getName();
     LOG.debug("enforce user: '{}' entity: '{}' permissions: '{}'", username, entity, permissions);
 
@@ -125,9 +200,8 @@ public class LDAPRoleAccessController implements AccessController {
     }
   }
 
-  @Override
-  public void enforceOnParent(EntityType entityType, EntityId parentId, Principal principal, Permission permission)
-    throws AccessException {
+  private void enforcePermissionOnParent(EntityType entityType, EntityId parentId, Principal principal,
+                                         Permission permission) throws UnauthorizedException {
     String username = principal.getName();
 
     LOG.debug("enforceOnParent user: '{}' type: '{}' parent: '{}' permissions: '{}'", username, entityType, parentId,
@@ -152,9 +226,7 @@ public class LDAPRoleAccessController implements AccessController {
     }
   }
 
-  @Override
-  public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal)
-    throws AccessException {
+  private Set<? extends EntityId> filterVisible(Set<? extends EntityId> entityIds, Principal principal) {
     String username = principal.getName();
 
     LOG.debug("isVisible user: '{}' entity: '{}' ", username, entityIds);
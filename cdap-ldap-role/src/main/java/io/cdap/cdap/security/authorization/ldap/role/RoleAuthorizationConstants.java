@@ -89,10 +89,17 @@ public final class RoleAuthorizationConstants {
   public static final String LDAP_POOL_TIMEOUT = "ldap.pool.timeout";
 
   /**
-   * Path to yaml with role mappings (example "/data/roles.yaml").
+   * Path to yaml with role mappings (example "/data/roles.yaml") or to directory with yaml fragments
+   * (example "/data/roles.d"). Fragments are merged, roles of the same group from several fragments are combined.
    */
   public static final String ROLE_YAML_PATH = "role.yaml.path";
 
+  /**
+   * Maximum time in milliseconds to wait for the first load of yaml with role mappings (default "30000").
+   * Initialization and requests arriving before that are blocked, instead of being denied by empty config.
+   */
+  public static final String ROLE_YAML_LOAD_TIMEOUT = "role.yaml.load.timeout";
+
   /**
    * Disable plugin and only log requests, can be used for debug.
    */
@@ -22,6 +22,7 @@ import io.cdap.cdap.proto.id.NamespacedEntityId;
 import io.cdap.cdap.proto.security.Permission;
 import io.cdap.cdap.security.authorization.ldap.role.group.GroupWithRolesProvider;
 import io.cdap.cdap.security.authorization.ldap.role.group.PrincipalPermissions;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.LDAPRoleMetrics;
 import io.cdap.cdap.security.authorization.ldap.role.permission.RolePermissionConverter;
 import io.cdap.cdap.security.authorization.ldap.role.searcher.LDAPSearchConfig;
 
@@ -82,8 +83,25 @@ public class RoleAuthorizationUtil {
    * @return {@link GroupWithRolesProvider}
    */
   public static GroupWithRolesProvider createLDAPGroupRoleProvider(Properties properties) {
+    return createLDAPGroupRoleProvider(properties, new LDAPRoleMetrics());
+  }
+
+  /**
+   * Creates provider of groups and roles from extension configuration with metrics
+   *
+   * @param properties {@link Properties} set for extension
+   * @param metrics    {@link LDAPRoleMetrics} of extension
+   * @return {@link GroupWithRolesProvider}
+   */
+  public static GroupWithRolesProvider createLDAPGroupRoleProvider(Properties properties, LDAPRoleMetrics metrics) {
     String yamlPath = properties.getProperty(RoleAuthorizationConstants.ROLE_YAML_PATH);
-    return new GroupWithRolesProvider(yamlPath);
+    String loadTimeoutString = properties.getProperty(RoleAuthorizationConstants.ROLE_YAML_LOAD_TIMEOUT);
+    long loadTimeout = loadTimeoutString == null ? GroupWithRolesProvider.DEFAULT_READY_TIMEOUT
+      : Long.parseLong(loadTimeoutString);
+
+    return new GroupWithRolesProvider(yamlPath, GroupWithRolesProvider.DEFAULT_UPDATE_INTERVAL_DELAY,
+                                      GroupWithRolesProvider.DEFAULT_UPDATE_INTERVAL, loadTimeout,
+                                      metrics.get(LDAPRoleMetrics.CONFIG_RELOAD));
   }
 
   /**
@@ -16,15 +16,13 @@
 
 package io.cdap.cdap.security.authorization.ldap.role.group;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import io.cdap.cdap.proto.element.EntityType;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
 import io.cdap.cdap.security.authorization.ldap.role.permission.EntityTypeWithPermission;
 import io.cdap.cdap.security.authorization.ldap.role.permission.RolePermissionConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Collections;
@@ -33,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -46,18 +45,24 @@ import java.util.stream.Stream;
 public class GroupWithRolesProvider {
   private static final Logger LOG = LoggerFactory.getLogger(GroupWithRolesProvider.class);
 
-  private static final long DEFAULT_UPDATE_INTERVAL_DELAY = 0;
-  private static final long DEFAULT_UPDATE_INTERVAL = 5000;
-
-  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(new YAMLFactory());
+  public static final long DEFAULT_UPDATE_INTERVAL_DELAY = 0;
+  public static final long DEFAULT_UPDATE_INTERVAL = 5000;
+  public static final long DEFAULT_READY_TIMEOUT = 30000;
 
   private final long updateDelay;
   private final long updateInterval;
+  private final long readyTimeout;
 
   private final String path;
+  private final RoleMappingConfigLoader configLoader;
   private final AtomicReference<RoleWithGroupsMappingConfig> referenceToMappingConfig;
   private final AtomicReference<Set<EntityType>> referenceToSetEntityTypes;
   private final ScheduledExecutorService executorService;
+  private final OperationMetrics metrics;
+  private final CountDownLatch readyLatch;
+
+  private volatile long readyDeadline;
+  private volatile boolean started;
 
   /**
    * Constructor with path
@@ -76,9 +81,27 @@ public class GroupWithRolesProvider {
    * @param updateInterval update interval for config
    */
   public GroupWithRolesProvider(String path, long updateDelay, long updateInterval) {
+    this(path, updateDelay, updateInterval, DEFAULT_READY_TIMEOUT, new OperationMetrics());
+  }
+
+  /**
+   * Constructor with path, intervals, timeout of first load and metrics
+   *
+   * @param path           path to mapping config
+   * @param updateDelay    update delay for config
+   * @param updateInterval update interval for config
+   * @param readyTimeout   how long {@link #start()} and early requests wait for the first loaded config
+   * @param metrics        {@link OperationMetrics} for config reload durations and failures
+   */
+  public GroupWithRolesProvider(String path, long updateDelay, long updateInterval, long readyTimeout,
+                                OperationMetrics metrics) {
     this.path = path;
+    this.configLoader = new RoleMappingConfigLoader(path);
     this.updateDelay = updateDelay;
     this.updateInterval = updateInterval;
+    this.readyTimeout = readyTimeout;
+    this.metrics = metrics;
+    readyLatch = new CountDownLatch(1);
 
     RoleWithGroupsMappingConfig mappingConfig = new RoleWithGroupsMappingConfig();
     referenceToMappingConfig = new AtomicReference<>(mappingConfig);
@@ -88,12 +111,32 @@ public class GroupWithRolesProvider {
   }
 
   /**
-   * Starts process of config parsing and updating
+   * Starts process of config parsing and updating. Blocks until config is loaded for the first time, but not longer
+   * than ready timeout. Until then requests to provider are parked for the rest of that timeout, instead of being
+   * served from empty config.
    */
   public void start() {
     LOG.info("Getting permissions from: {}", path);
+    readyDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readyTimeout);
+    started = true;
     executorService.scheduleAtFixedRate(this::updateRoleMapping, updateDelay, updateInterval,
                                         TimeUnit.MILLISECONDS);
+
+    if (awaitReady()) {
+      LOG.info("Permissions are loaded from: {}", path);
+    } else {
+      LOG.warn("Permissions were not loaded from '{}' in {} ms, all requests will be denied until config is loaded",
+               path, readyTimeout);
+    }
+  }
+
+  /**
+   * Checks if config was loaded at least once
+   *
+   * @return If provider is ready to serve requests
+   */
+  public boolean isReady() {
+    return readyLatch.getCount() == 0;
   }
 
   /**
@@ -101,6 +144,13 @@ public class GroupWithRolesProvider {
    */
   public void stop() {
     executorService.shutdown();
+    try {
+      // Waiting for running update, so that parsing pool is not used after shutdown
+      executorService.awaitTermination(updateInterval, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    configLoader.close();
   }
 
   /**
@@ -110,6 +160,7 @@ public class GroupWithRolesProvider {
    * @return {@link PrincipalPermissions}
    */
   public PrincipalPermissions getPrincipalPermissions(Set<String> groupNames) {
+    awaitReady();
     RoleWithGroupsMappingConfig mappingConfig = referenceToMappingConfig.get();
 
     Map<String, Set<EntityTypeWithPermission>> permissionsMap = groupNames.stream()
@@ -130,6 +181,7 @@ public class GroupWithRolesProvider {
    * @return If Entity is defined in config
    */
   public boolean isEntityTypeDefined(EntityType entityType) {
+    awaitReady();
     return referenceToSetEntityTypes.get()
       .contains(entityType);
   }
@@ -141,6 +193,7 @@ public class GroupWithRolesProvider {
    * @return If user has full access
    */
   public boolean isUserWithFullAccess(String username) {
+    awaitReady();
     return referenceToMappingConfig.get()
       .getFullAccessUsers()
       .contains(username);
@@ -148,28 +201,46 @@ public class GroupWithRolesProvider {
 
   private void updateRoleMapping() {
     LOG.debug("Updating permissions from: {}", path);
+    long startTime = System.nanoTime();
 
-    RoleWithGroupsMappingConfig mappingConfig;
+    RoleMappingConfigLoader.Fragment loadedConfig;
     try {
-      mappingConfig = OBJECT_MAPPER.readValue(new File(path), RoleWithGroupsMappingConfig.class);
-    } catch (IOException e) {
-      LOG.error("Failed to read config from '{}'", path, e);
+      loadedConfig = configLoader.load();
+    } catch (IOException | RuntimeException e) {
+      // Any exception escaping the scheduled task would cancel further updates, so previous mapping is kept instead
+      LOG.error("Failed to read config from '{}', keeping previous role mapping", path, e);
+      metrics.incrementErrors();
+      metrics.recordLatency(startTime);
       return;
     }
 
-    Set<EntityType> setEntityTypes = mappingConfig
-      .getRoles() // Get all roles
-      .values()
-      .stream()
-      .map(Role::getPermissions) // Get all permissions
-      .flatMap(Collection::stream)
-      .map(RolePermissionConverter::convertToEntityTypeWithPermission) // Convert to CDAP permissions with EntityType
-      .flatMap(Collection::stream)
-      .map(EntityTypeWithPermission::getEntityType) // Get entity type
-      .collect(Collectors.toSet());
+    referenceToMappingConfig.set(loadedConfig.getConfig());
+    referenceToSetEntityTypes.set(loadedConfig.getEntityTypes());
+    readyLatch.countDown();
+    metrics.recordLatency(startTime);
+  }
 
-    referenceToMappingConfig.set(mappingConfig);
-    referenceToSetEntityTypes.set(setEntityTypes);
+  /**
+   * Waits for the first loaded config until ready deadline, returns immediately if provider is not started
+   */
+  private boolean awaitReady() {
+    if (isReady()) {
+      return true;
+    }
+    if (!started) {
+      return false;
+    }
+
+    long remaining = readyDeadline - System.nanoTime();
+    if (remaining <= 0) {
+      return false;
+    }
+    try {
+      return readyLatch.await(remaining, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return isReady();
+    }
   }
 
   private List<RoleWithNamespaces> getGroupRoles(String groupName) {
@@ -0,0 +1,278 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.group;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.cdap.cdap.proto.element.EntityType;
+import io.cdap.cdap.security.authorization.ldap.role.permission.EntityTypeWithPermission;
+import io.cdap.cdap.security.authorization.ldap.role.permission.RolePermissionConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Loader of {@link RoleWithGroupsMappingConfig} from a single yaml file or from a directory of yaml fragments.
+ * Fragments are parsed and compiled in parallel on a fork-join pool and merged into one config. Fragments are read on
+ * every load, but the ones whose content hash did not change since previous load are reused without parsing, which
+ * unlike modification time also detects edits within the granularity of file timestamps.
+ * Loader is not thread safe and is expected to be called from a single update thread.
+ */
+class RoleMappingConfigLoader {
+  private static final Logger LOG = LoggerFactory.getLogger(RoleMappingConfigLoader.class);
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper(new YAMLFactory());
+  private static final List<String> FRAGMENT_EXTENSIONS = Arrays.asList(".yaml", ".yml");
+
+  private final File path;
+  private final Map<File, Fragment> fragments;
+  private ForkJoinPool pool;
+
+  /**
+   * Constructor
+   *
+   * @param path path to yaml file or to directory with yaml fragments
+   */
+  RoleMappingConfigLoader(String path) {
+    this.path = new File(path);
+    fragments = new HashMap<>();
+  }
+
+  /**
+   * Loads config, parsing only fragments whose content changed since previous load
+   *
+   * @return merged config with set of entity types defined in it
+   * @throws IOException if any fragment cannot be read or fragments contradict each other
+   */
+  Fragment load() throws IOException {
+    List<File> files = listFiles();
+
+    Map<File, byte[]> changedContents = new LinkedHashMap<>();
+    for (File file : files) {
+      byte[] content = read(file);
+      Fragment fragment = fragments.get(file);
+      if (fragment == null || !MessageDigest.isEqual(fragment.digest, digest(content))) {
+        changedContents.put(file, content);
+      }
+    }
+    fragments.keySet().retainAll(files);
+
+    if (!changedContents.isEmpty()) {
+      LOG.debug("Parsing {} changed config fragments of {} from '{}'", changedContents.size(), files.size(), path);
+      for (Fragment fragment : parse(changedContents)) {
+        fragments.put(fragment.file, fragment);
+      }
+    }
+
+    if (files.size() == 1) {
+      return fragments.get(files.get(0));
+    }
+
+    List<Fragment> orderedFragments = new ArrayList<>();
+    for (File file : files) {
+      orderedFragments.add(fragments.get(file));
+    }
+    return merge(orderedFragments);
+  }
+
+  /**
+   * Releases threads used for parsing
+   */
+  void close() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  private List<File> listFiles() throws IOException {
+    if (!path.isDirectory()) {
+      return Collections.singletonList(path);
+    }
+
+    File[] files = path.listFiles(file -> file.isFile() && FRAGMENT_EXTENSIONS.stream()
+      .anyMatch(extension -> file.getName().endsWith(extension)));
+    if (files == null || files.length == 0) {
+      String errorMsg = String.format("No yaml fragments found in '%s'", path);
+      throw new IOException(errorMsg);
+    }
+
+    // Sorted, so merged config does not depend on order of directory listing
+    Arrays.sort(files);
+    return Arrays.asList(files);
+  }
+
+  private static byte[] read(File file) throws IOException {
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      String errorMsg = String.format("Failed to read config fragment '%s'", file);
+      throw new IOException(errorMsg, e);
+    }
+  }
+
+  private static byte[] digest(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private List<Fragment> parse(Map<File, byte[]> contents) throws IOException {
+    if (contents.size() == 1) {
+      Map.Entry<File, byte[]> entry = contents.entrySet().iterator().next();
+      return Collections.singletonList(Fragment.parse(entry.getKey(), entry.getValue()));
+    }
+
+    if (pool == null) {
+      pool = new ForkJoinPool(Math.min(contents.size(), Runtime.getRuntime().availableProcessors()));
+    }
+
+    List<Callable<Fragment>> tasks = contents.entrySet().stream()
+      .map(entry -> (Callable<Fragment>) () -> Fragment.parse(entry.getKey(), entry.getValue()))
+      .collect(Collectors.toList());
+
+    List<Fragment> result = new ArrayList<>();
+    try {
+      for (Future<Fragment> future : pool.invokeAll(tasks)) {
+        result.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while parsing config fragments", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      throw new IOException("Failed to parse config fragment", cause);
+    }
+    return result;
+  }
+
+  private Fragment merge(List<Fragment> orderedFragments) throws IOException {
+    Map<String, Role> roles = new HashMap<>();
+    Map<String, GroupWithRoles> mappings = new HashMap<>();
+    Set<String> fullAccessUsers = new HashSet<>();
+    Set<EntityType> entityTypes = new HashSet<>();
+
+    for (Fragment fragment : orderedFragments) {
+      RoleWithGroupsMappingConfig config = fragment.config;
+
+      for (Role role : config.getRoles().values()) {
+        Role existingRole = roles.putIfAbsent(role.getName(), role);
+        if (existingRole != null && !existingRole.equals(role)) {
+          String errorMsg = String.format("Role '%s' from '%s' is already defined with other permissions",
+                                          role.getName(), fragment.file);
+          throw new IOException(errorMsg);
+        }
+      }
+
+      // Roles of group mapped in several fragments are combined
+      for (GroupWithRoles group : config.getRoleMapping().values()) {
+        GroupWithRoles existingGroup = mappings.get(group.getGroup());
+        if (existingGroup == null) {
+          mappings.put(group.getGroup(), group);
+        } else {
+          List<RoleWithNamespaces> groupRoles = existingGroup.getRoles();
+          groupRoles.addAll(group.getRoles());
+
+          GroupWithRoles mergedGroup = new GroupWithRoles();
+          mergedGroup.setGroup(group.getGroup());
+          mergedGroup.setRoles(groupRoles);
+          mappings.put(group.getGroup(), mergedGroup);
+        }
+      }
+
+      fullAccessUsers.addAll(config.getFullAccessUsers());
+      entityTypes.addAll(fragment.entityTypes);
+    }
+
+    RoleWithGroupsMappingConfig mergedConfig = new RoleWithGroupsMappingConfig(roles, mappings, fullAccessUsers);
+    return new Fragment(path, new byte[0], mergedConfig, entityTypes);
+  }
+
+  /**
+   * Parsed config with set of entity types it defines permissions for
+   */
+  static final class Fragment {
+    private final File file;
+    // SHA-256 of the content the config was parsed from
+    private final byte[] digest;
+    private final RoleWithGroupsMappingConfig config;
+    private final Set<EntityType> entityTypes;
+
+    private Fragment(File file, byte[] digest, RoleWithGroupsMappingConfig config, Set<EntityType> entityTypes) {
+      this.file = file;
+      this.digest = digest;
+      this.config = config;
+      this.entityTypes = Collections.unmodifiableSet(entityTypes);
+    }
+
+    RoleWithGroupsMappingConfig getConfig() {
+      return config;
+    }
+
+    Set<EntityType> getEntityTypes() {
+      return entityTypes;
+    }
+
+    private static Fragment parse(File file, byte[] content) throws IOException {
+      RoleWithGroupsMappingConfig config;
+      try {
+        config = OBJECT_MAPPER.readValue(content, RoleWithGroupsMappingConfig.class);
+      } catch (IOException e) {
+        String errorMsg = String.format("Failed to parse config fragment '%s'", file);
+        throw new IOException(errorMsg, e);
+      }
+
+      Set<EntityType> entityTypes = config
+        .getRoles() // Get all roles
+        .values()
+        .stream()
+        .map(Role::getPermissions) // Get all permissions
+        .flatMap(Collection::stream)
+        .map(RolePermissionConverter::convertToEntityTypeWithPermission) // Convert to CDAP permissions with EntityType
+        .flatMap(Collection::stream)
+        .map(EntityTypeWithPermission::getEntityType) // Get entity type
+        .collect(Collectors.toSet());
+
+      return new Fragment(file, digest(content), config, entityTypes);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of LDAP RBAC extension, every operation is exposed as a separate MBean
+ * 'io.cdap.cdap.security.authorization.ldap.role:type=Metrics,instance=&lt;instance&gt;,name=&lt;operation&gt;'.
+ * The instance key keeps the MBeans of several extension instances in one JVM apart.
+ */
+public class LDAPRoleMetrics {
+  private static final Logger LOG = LoggerFactory.getLogger(LDAPRoleMetrics.class);
+
+  public static final String DOMAIN = "io.cdap.cdap.security.authorization.ldap.role";
+
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  /**
+   * Names of instrumented operations
+   */
+  public static final String LDAP_CONNECTION = "ldap.connection";
+  public static final String LDAP_SEARCH = "ldap.search";
+  public static final String CONFIG_RELOAD = "config.reload";
+  public static final String ENFORCE = "enforce";
+  public static final String ENFORCE_ON_PARENT = "enforceOnParent";
+  public static final String IS_VISIBLE = "isVisible";
+
+  private final Map<String, OperationMetrics> operations;
+  private int instance;
+
+  public LDAPRoleMetrics() {
+    Map<String, OperationMetrics> map = new LinkedHashMap<>();
+    for (String name : new String[]{LDAP_CONNECTION, LDAP_SEARCH, CONFIG_RELOAD, ENFORCE, ENFORCE_ON_PARENT,
+      IS_VISIBLE}) {
+      map.put(name, new OperationMetrics());
+    }
+    operations = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Returns metrics of operation
+   *
+   * @param name Name of operation, one of constants of this class
+   * @return {@link OperationMetrics}
+   */
+  public OperationMetrics get(String name) {
+    OperationMetrics metrics = operations.get(name);
+    if (metrics == null) {
+      String errorMsg = String.format("Unknown operation '%s'", name);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    return metrics;
+  }
+
+  /**
+   * Registers MBeans in platform MBean server under an instance key not used by any other registered MBean
+   */
+  public synchronized void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (instance == 0) {
+      instance = nextInstance(server);
+    }
+    for (Map.Entry<String, OperationMetrics> entry : operations.entrySet()) {
+      try {
+        server.registerMBean(entry.getValue(), getObjectName(entry.getKey()));
+      } catch (JMException e) {
+        LOG.warn("Failed to register metrics MBean for '{}'", entry.getKey(), e);
+      }
+    }
+  }
+
+  /**
+   * Unregisters MBeans registered by this instance from platform MBean server
+   */
+  public synchronized void unregister() {
+    if (instance == 0) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (String operation : operations.keySet()) {
+      try {
+        ObjectName name = getObjectName(operation);
+        if (server.isRegistered(name)) {
+          server.unregisterMBean(name);
+        }
+      } catch (JMException e) {
+        LOG.warn("Failed to unregister metrics MBean for '{}'", operation, e);
+      }
+    }
+  }
+
+  /**
+   * Returns the next instance key without registered MBeans. The counter restarts when the extension is loaded by
+   * a new class loader, so keys still used by MBeans of a previous load are skipped.
+   */
+  private static int nextInstance(MBeanServer server) {
+    while (true) {
+      int next = INSTANCES.incrementAndGet();
+      try {
+        ObjectName pattern = new ObjectName(String.format("%s:instance=%d,*", DOMAIN, next));
+        if (server.queryNames(pattern, null).isEmpty()) {
+          return next;
+        }
+      } catch (JMException e) {
+        LOG.warn("Failed to query metrics MBeans of instance {}", next, e);
+        return next;
+      }
+    }
+  }
+
+  synchronized ObjectName getObjectName(String operation) throws JMException {
+    return new ObjectName(String.format("%s:type=Metrics,instance=%d,name=%s", DOMAIN, instance, operation));
+  }
+}
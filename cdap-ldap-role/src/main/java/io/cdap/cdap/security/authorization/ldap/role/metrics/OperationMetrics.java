@@ -0,0 +1,103 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.metrics;
+
+import io.cdap.cdap.security.authorization.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and counters of one instrumented operation
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder denials = new LongAdder();
+
+  /**
+   * Records latency of call
+   *
+   * @param startNanos Result of {@link System#nanoTime()} taken before the call
+   */
+  public void recordLatency(long startNanos) {
+    latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+  }
+
+  public void incrementErrors() {
+    errors.increment();
+  }
+
+  public void incrementRetries() {
+    retries.increment();
+  }
+
+  public void incrementDenials() {
+    denials.increment();
+  }
+
+  @Override
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  @Override
+  public long getDenials() {
+    return denials.sum();
+  }
+
+  @Override
+  public double getMeanLatencyMicros() {
+    return latency.getMean();
+  }
+
+  @Override
+  public long getMaxLatencyMicros() {
+    return latency.getMax();
+  }
+
+  @Override
+  public long getP50LatencyMicros() {
+    return latency.getPercentile(50);
+  }
+
+  @Override
+  public long getP90LatencyMicros() {
+    return latency.getPercentile(90);
+  }
+
+  @Override
+  public long getP99LatencyMicros() {
+    return latency.getPercentile(99);
+  }
+
+  @Override
+  public long getP999LatencyMicros() {
+    return latency.getPercentile(99.9);
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.metrics;
+
+/**
+ * JMX view of {@link OperationMetrics}, latencies are in microseconds
+ */
+public interface OperationMetricsMXBean {
+
+  /**
+   * Amount of completed calls, including failed and denied ones
+   */
+  long getCount();
+
+  /**
+   * Amount of calls failed with error
+   */
+  long getErrors();
+
+  /**
+   * Amount of retries made inside of calls
+   */
+  long getRetries();
+
+  /**
+   * Amount of calls which ended with access denial
+   */
+  long getDenials();
+
+  double getMeanLatencyMicros();
+
+  long getMaxLatencyMicros();
+
+  long getP50LatencyMicros();
+
+  long getP90LatencyMicros();
+
+  long getP99LatencyMicros();
+
+  long getP999LatencyMicros();
+}
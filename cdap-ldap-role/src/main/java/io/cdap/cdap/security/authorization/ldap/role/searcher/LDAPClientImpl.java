@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.security.authorization.ldap.role.searcher;
 
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,25 +35,43 @@ public class LDAPClientImpl implements LDAPClient {
 
     private final Hashtable<String, String> properties;
     private final LDAPSearchConfig config;
+    private final OperationMetrics metrics;
 
     public LDAPClientImpl(LDAPSearchConfig config) {
+        this(config, new OperationMetrics());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param config  {@link LDAPSearchConfig} configuration for LDAP connection
+     * @param metrics {@link OperationMetrics} for connection latency, retries and failures
+     */
+    public LDAPClientImpl(LDAPSearchConfig config, OperationMetrics metrics) {
         this.config = config;
+        this.metrics = metrics;
         properties = getConnectionProperties();
     }
 
     @Override
     public DirContext getConnection() throws NamingException {
+        long startTime = System.nanoTime();
         for (int i = 1;; i++) {
             try {
-                return new InitialDirContext(properties);
+                DirContext context = new InitialDirContext(properties);
+                metrics.recordLatency(startTime);
+                return context;
             } catch (NamingException e) {
                 LOG.warn("Failed connect to '{}' on attempt '{}'", config.getUrl(), i);
 
                 // Throw error if maximum of attempts is reached
                 if (i == LDAPConstants.MAX_CONNECTION_RETRIES) {
+                    metrics.incrementErrors();
+                    metrics.recordLatency(startTime);
                     throw e;
                 }
 
+                metrics.incrementRetries();
                 sleep(i * LDAPConstants.DEFAULT_RETRY_INTERVAL);
             }
         }
@@ -83,13 +102,13 @@ public class LDAPClientImpl implements LDAPClient {
         }
 
         props.put(LDAPConstants.LDAP_POOL, "true");
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_AUTHENTICATION, config.getPoolAuthentication(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_DEBUG, config.getPoolDebug(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_MAXSIZE, config.getPoolMaxsize(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_INITSIZE, config.getPoolInitsize(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_PREFSIZE, config.getPoolPrefsize(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_PROTOCOL, config.getPoolProtocol(), properties);
-        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_TIMEOUT, config.getPoolTimeout(), properties);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_AUTHENTICATION, config.getPoolAuthentication(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_DEBUG, config.getPoolDebug(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_MAXSIZE, config.getPoolMaxsize(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_INITSIZE, config.getPoolInitsize(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_PREFSIZE, config.getPoolPrefsize(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_PROTOCOL, config.getPoolProtocol(), props);
+        setPropertyIfNotNull(LDAPConstants.LDAP_POOL_TIMEOUT, config.getPoolTimeout(), props);
 
         return props;
     }
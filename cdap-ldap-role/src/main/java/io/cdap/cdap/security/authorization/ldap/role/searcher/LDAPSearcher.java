@@ -16,6 +16,7 @@
 
 package io.cdap.cdap.security.authorization.ldap.role.searcher;
 
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,6 +45,7 @@ public class LDAPSearcher {
   private final LDAPSearchConfig config;
   private final String[] baseDNList;
   private final LDAPClient client;
+  private final OperationMetrics metrics;
 
   /**
    * Constructor
@@ -52,8 +54,20 @@ public class LDAPSearcher {
    * @param client {@link LDAPClient} implementation for communication with LDAP
    */
   public LDAPSearcher(LDAPSearchConfig config, LDAPClient client) {
+    this(config, client, new OperationMetrics());
+  }
+
+  /**
+   * Constructor with metrics
+   *
+   * @param config  {@link LDAPSearchConfig} configuration for LDAP searcher
+   * @param client  {@link LDAPClient} implementation for communication with LDAP
+   * @param metrics {@link OperationMetrics} for search latency, retries and failures
+   */
+  public LDAPSearcher(LDAPSearchConfig config, LDAPClient client, OperationMetrics metrics) {
     this.config = config;
     this.client = client;
+    this.metrics = metrics;
     baseDNList = config.getSearchBaseDn().split(LDAPConstants.BASE_DN_SPLITTER);
   }
 
@@ -64,6 +78,18 @@ public class LDAPSearcher {
    * @return Set of groups
    */
   public Set<String> searchGroups(String username) {
+    long startTime = System.nanoTime();
+    try {
+      return searchGroupsWithRetries(username);
+    } catch (RuntimeException e) {
+      metrics.incrementErrors();
+      throw e;
+    } finally {
+      metrics.recordLatency(startTime);
+    }
+  }
+
+  private Set<String> searchGroupsWithRetries(String username) {
     for (int i = 1;; i++) {
       try {
         DirContext context = client.getConnection();
@@ -101,6 +127,7 @@ public class LDAPSearcher {
         }
 
         LOG.warn(errorMsg);
+        metrics.incrementRetries();
         sleep(i * LDAPConstants.DEFAULT_RETRY_INTERVAL);
       }
     }
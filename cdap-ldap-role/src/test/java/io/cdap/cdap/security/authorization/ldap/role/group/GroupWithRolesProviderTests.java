@@ -20,12 +20,14 @@ import io.cdap.cdap.proto.element.EntityType;
 import io.cdap.cdap.proto.id.DatasetId;
 import io.cdap.cdap.proto.id.NamespaceId;
 import io.cdap.cdap.proto.security.StandardPermission;
+import io.cdap.cdap.security.authorization.ldap.role.metrics.OperationMetrics;
 import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -34,6 +36,7 @@ import java.util.Set;
  */
 public class GroupWithRolesProviderTests {
   private static final String PATH = "src/test/resources/roles.yaml";
+  private static final String FRAGMENTS_PATH = "src/test/resources/roles.d";
   private static GroupWithRolesProvider provider;
 
   @BeforeClass
@@ -76,4 +79,57 @@ public class GroupWithRolesProviderTests {
 
     Assert.assertFalse(isArtifactDefined);
   }
+
+  @Test
+  public void testFragmentsDirectory() {
+    GroupWithRolesProvider fragmentsProvider = new GroupWithRolesProvider(FRAGMENTS_PATH, 0, 60000, 10000,
+                                                                          new OperationMetrics());
+    try {
+      fragmentsProvider.start();
+      Assert.assertTrue(fragmentsProvider.isReady());
+
+      // Role mapped in one fragment, group mapped in other fragments
+      PrincipalPermissions operator2Permissions = fragmentsProvider.getPrincipalPermissions(
+        Collections.singleton("CN=operator2,OU=groups,DC=test,DC=local"));
+      Assert.assertTrue(operator2Permissions.getPermission(new NamespaceId("namespace1"), StandardPermission.CREATE)
+                          .isPresent());
+
+      // Roles of the same group from two fragments are combined
+      PrincipalPermissions operator1Permissions = fragmentsProvider.getPrincipalPermissions(
+        Collections.singleton("CN=operator1,OU=groups,DC=test,DC=local"));
+      Assert.assertTrue(operator1Permissions.getPermission(new DatasetId("namespace1", "$"), StandardPermission.LIST)
+                          .isPresent());
+      Assert.assertTrue(operator1Permissions.getPermission(new NamespaceId("namespace2"), StandardPermission.CREATE)
+                          .isPresent());
+      Assert.assertFalse(operator1Permissions.getPermission(new NamespaceId("namespace1"), StandardPermission.CREATE)
+                           .isPresent());
+    } finally {
+      fragmentsProvider.stop();
+    }
+  }
+
+  @Test
+  public void testStartWaitsForConfig() {
+    GroupWithRolesProvider readyProvider = new GroupWithRolesProvider(PATH, 0, 60000, 10000, new OperationMetrics());
+    try {
+      readyProvider.start();
+      Assert.assertTrue(readyProvider.isReady());
+      Assert.assertTrue(readyProvider.isEntityTypeDefined(EntityType.NAMESPACE));
+    } finally {
+      readyProvider.stop();
+    }
+  }
+
+  @Test
+  public void testStartWithMissingConfig() {
+    GroupWithRolesProvider missingProvider = new GroupWithRolesProvider("src/test/resources/missing.yaml", 0, 60000,
+                                                                        100, new OperationMetrics());
+    try {
+      missingProvider.start();
+      Assert.assertFalse(missingProvider.isReady());
+      Assert.assertFalse(missingProvider.isUserWithFullAccess("user"));
+    } finally {
+      missingProvider.stop();
+    }
+  }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.group;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests for {@link RoleMappingConfigLoader} class
+ */
+public class RoleMappingConfigLoaderTests {
+  private static final String GROUP = "CN=operator1,OU=groups,DC=test,DC=local";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testReloadFragmentWithSameLengthAndModificationTime() throws Exception {
+    File file = temporaryFolder.newFile("roles.yaml");
+    writeMapping(file, "namespace1");
+    FileTime lastModified = Files.getLastModifiedTime(file.toPath());
+    long length = file.length();
+
+    RoleMappingConfigLoader loader = new RoleMappingConfigLoader(file.getPath());
+    try {
+      Assert.assertEquals(Collections.singletonList("namespace1"), getNamespaces(loader.load()));
+
+      // Edit keeping the size, landing within the granularity of file timestamps
+      writeMapping(file, "namespace2");
+      Files.setLastModifiedTime(file.toPath(), lastModified);
+      Assert.assertEquals(length, file.length());
+      Assert.assertEquals(Collections.singletonList("namespace2"), getNamespaces(loader.load()));
+
+      // Unchanged fragment is reused without parsing
+      RoleMappingConfigLoader.Fragment fragment = loader.load();
+      Assert.assertSame(fragment, loader.load());
+    } finally {
+      loader.close();
+    }
+  }
+
+  private static void writeMapping(File file, String namespace) throws IOException {
+    String yaml = "mappings:\n"
+      + "  - group: " + GROUP + "\n"
+      + "    roles:\n"
+      + "      - role: admin\n"
+      + "        namespaces:\n"
+      + "          - " + namespace + "\n";
+    Files.write(file.toPath(), yaml.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static List<String> getNamespaces(RoleMappingConfigLoader.Fragment fragment) {
+    return fragment.getConfig().getRoleMapping().get(GROUP).getRoles().get(0).getNamespaces();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Tests for {@link LDAPRoleMetrics} class
+ */
+public class LDAPRoleMetricsTests {
+
+  @Test
+  public void testRegisterSeveralInstances() throws Exception {
+    LDAPRoleMetrics metrics = new LDAPRoleMetrics();
+    OperationMetrics enforce = metrics.get(LDAPRoleMetrics.ENFORCE);
+    enforce.recordLatency(System.nanoTime());
+    enforce.incrementDenials();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    metrics.register();
+    ObjectName name = metrics.getObjectName(LDAPRoleMetrics.ENFORCE);
+    try {
+      Assert.assertEquals(1L, server.getAttribute(name, "Count"));
+      Assert.assertEquals(1L, server.getAttribute(name, "Denials"));
+
+      // another instance registers its own MBeans and leaves those of this instance alone
+      LDAPRoleMetrics newMetrics = new LDAPRoleMetrics();
+      newMetrics.register();
+      ObjectName newName = newMetrics.getObjectName(LDAPRoleMetrics.ENFORCE);
+      Assert.assertNotEquals(name, newName);
+      Assert.assertEquals(0L, server.getAttribute(newName, "Count"));
+      Assert.assertEquals(1L, server.getAttribute(name, "Count"));
+      newMetrics.unregister();
+      Assert.assertFalse(server.isRegistered(newName));
+      Assert.assertTrue(server.isRegistered(name));
+    } finally {
+      metrics.unregister();
+    }
+    Assert.assertFalse(server.isRegistered(name));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownOperation() {
+    new LDAPRoleMetrics().get("unknown");
+  }
+}
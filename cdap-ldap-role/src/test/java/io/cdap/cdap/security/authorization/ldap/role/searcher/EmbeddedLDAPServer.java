@@ -0,0 +1,183 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.searcher;
+
+import com.unboundid.ldap.listener.InMemoryDirectoryServer;
+import com.unboundid.ldap.listener.InMemoryDirectoryServerConfig;
+import com.unboundid.ldap.listener.InMemoryListenerConfig;
+import com.unboundid.ldap.sdk.Attribute;
+import com.unboundid.ldap.sdk.Entry;
+import com.unboundid.ldap.sdk.LDAPException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process LDAP server loaded with a synthetic directory of users and groups. Users are spread over a chain of
+ * nested organizational units, so that recursive searches are exercised as well.
+ */
+public class EmbeddedLDAPServer {
+    public static final String BASE_DN = "DC=test,DC=local";
+    public static final String USERS_DN = "OU=users," + BASE_DN;
+    public static final String GROUPS_DN = "OU=groups," + BASE_DN;
+    public static final String BIND_DN = "CN=admin," + BASE_DN;
+    public static final String BIND_PASSWORD = "password";
+
+    private final int users;
+    private final int groups;
+    private final int groupsPerUser;
+    private final int levels;
+
+    private InMemoryDirectoryServer server;
+
+    /**
+     * Constructor
+     *
+     * @param users         Amount of users in directory
+     * @param groups        Amount of groups in directory
+     * @param groupsPerUser Amount of groups every user is member of
+     * @param levels        Depth of organizational units users are placed in
+     */
+    public EmbeddedLDAPServer(int users, int groups, int groupsPerUser, int levels) {
+        if (users < 1 || groups < 1 || groupsPerUser < 0 || levels < 1) {
+            throw new IllegalArgumentException("Directory must contain at least one user, group and level");
+        }
+        this.users = users;
+        this.groups = groups;
+        this.groupsPerUser = Math.min(groupsPerUser, groups);
+        this.levels = levels;
+    }
+
+    /**
+     * Populates directory and starts listening on a random port
+     */
+    public void start() throws LDAPException {
+        InMemoryDirectoryServerConfig config = new InMemoryDirectoryServerConfig(BASE_DN);
+        config.setListenerConfigs(InMemoryListenerConfig.createLDAPConfig("default", 0));
+        config.addAdditionalBindCredentials(BIND_DN, BIND_PASSWORD);
+        // Attributes like 'samaccountname' and 'memberOf' come from Active Directory and are unknown to default schema
+        config.setSchema(null);
+
+        server = new InMemoryDirectoryServer(config);
+        server.addEntries(createEntries());
+        server.startListening();
+    }
+
+    /**
+     * Stops server and closes all client connections
+     */
+    public void stop() {
+        if (server != null) {
+            server.shutDown(true);
+            server = null;
+        }
+    }
+
+    public String getUrl() {
+        return String.format("ldap://localhost:%d/", server.getListenPort());
+    }
+
+    public int getUsers() {
+        return users;
+    }
+
+    /**
+     * Creates builder of {@link LDAPSearchConfig} pointing to this server and searching users recursively
+     */
+    public LDAPSearchConfig.Builder configBuilder() {
+        return LDAPSearchConfig.builder()
+                .withUrl(getUrl())
+                .withSearchBaseDn(USERS_DN)
+                .withLookUpBindDN(BIND_DN)
+                .withLookUpBindPassword(BIND_PASSWORD)
+                .withRecursiveSearch(true);
+    }
+
+    public static String getUserName(int user) {
+        return String.format("user%d", user);
+    }
+
+    public static String getGroupDn(int group) {
+        return String.format("CN=group%d,%s", group, GROUPS_DN);
+    }
+
+    /**
+     * Level of organizational unit user is placed in, 0 means user is placed directly in {@link #USERS_DN}
+     */
+    public int getUserLevel(int user) {
+        return user % levels;
+    }
+
+    /**
+     * Returns DNs of groups user is member of
+     */
+    public Set<String> getUserGroups(int user) {
+        // Spread memberships evenly, so every group has roughly the same amount of members
+        int stride = Math.max(1, groups / Math.max(1, groupsPerUser));
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < groupsPerUser; i++) {
+            result.add(getGroupDn((user + i * stride) % groups));
+        }
+        return result;
+    }
+
+    private List<Entry> createEntries() {
+        List<Entry> entries = new ArrayList<>();
+        entries.add(new Entry(BASE_DN,
+                              new Attribute("objectClass", "top", "domain"),
+                              new Attribute("dc", "test")));
+        entries.add(createOrganizationalUnit(USERS_DN, "users"));
+        entries.add(createOrganizationalUnit(GROUPS_DN, "groups"));
+
+        for (int level = 1; level < levels; level++) {
+            entries.add(createOrganizationalUnit(getLevelDn(level), String.format("level%d", level)));
+        }
+
+        for (int group = 0; group < groups; group++) {
+            entries.add(new Entry(getGroupDn(group),
+                                  new Attribute("objectClass", "top", "group"),
+                                  new Attribute("cn", String.format("group%d", group))));
+        }
+
+        for (int user = 0; user < users; user++) {
+            String name = getUserName(user);
+            String dn = String.format("CN=%s,%s", name, getLevelDn(getUserLevel(user)));
+            entries.add(new Entry(dn,
+                                  new Attribute("objectClass", "top", "person"),
+                                  new Attribute("cn", name),
+                                  new Attribute("samaccountname", name),
+                                  new Attribute("memberOf", getUserGroups(user))));
+        }
+        return entries;
+    }
+
+    private static Entry createOrganizationalUnit(String dn, String name) {
+        return new Entry(dn,
+                         new Attribute("objectClass", "top", "organizationalUnit"),
+                         new Attribute("ou", name));
+    }
+
+    private static String getLevelDn(int level) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = level; i > 0; i--) {
+            builder.append(String.format("OU=level%d,", i));
+        }
+        return builder.append(USERS_DN).toString();
+    }
+}
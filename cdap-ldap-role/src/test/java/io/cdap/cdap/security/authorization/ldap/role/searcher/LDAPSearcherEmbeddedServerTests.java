@@ -0,0 +1,111 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.searcher;
+
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests for {@link LDAPClientImpl} and {@link LDAPSearcher} against {@link EmbeddedLDAPServer}
+ */
+public class LDAPSearcherEmbeddedServerTests {
+    private static final int USERS = 100;
+    private static final int LEVELS = 3;
+
+    private static EmbeddedLDAPServer server;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        server = new EmbeddedLDAPServer(USERS, 20, 3, LEVELS);
+        server.start();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testRecursiveSearch() {
+        LDAPSearchConfig config = server.configBuilder().build();
+        LDAPSearcher searcher = new LDAPSearcher(config, new LDAPClientImpl(config));
+
+        for (int user = 0; user < LEVELS; user++) {
+            Set<String> groups = searcher.searchGroups(EmbeddedLDAPServer.getUserName(user));
+            Assert.assertEquals(server.getUserGroups(user), groups);
+        }
+    }
+
+    @Test
+    public void testNonRecursiveSearch() {
+        LDAPSearchConfig config = server.configBuilder()
+                .withRecursiveSearch(false)
+                .build();
+        LDAPSearcher searcher = new LDAPSearcher(config, new LDAPClientImpl(config));
+
+        Assert.assertEquals(0, server.getUserLevel(0));
+        Assert.assertEquals(server.getUserGroups(0), searcher.searchGroups(EmbeddedLDAPServer.getUserName(0)));
+
+        Assert.assertEquals(1, server.getUserLevel(1));
+        Assert.assertTrue(searcher.searchGroups(EmbeddedLDAPServer.getUserName(1)).isEmpty());
+    }
+
+    @Test
+    public void testUnknownUser() {
+        LDAPSearchConfig config = server.configBuilder().build();
+        LDAPSearcher searcher = new LDAPSearcher(config, new LDAPClientImpl(config));
+
+        Assert.assertTrue(searcher.searchGroups("unknown").isEmpty());
+    }
+
+    @Test
+    public void testConcurrentSearchWithPool() throws Exception {
+        LDAPSearchConfig config = server.configBuilder()
+                .withPoolMaxsize("4")
+                .withPoolPrefsize("2")
+                .withPoolTimeout("30000")
+                .build();
+        LDAPClient client = new LDAPClientImpl(config);
+        client.testConnection();
+        LDAPSearcher searcher = new LDAPSearcher(config, client);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int user = 0; user < USERS; user++) {
+                int current = user;
+                results.add(executor.submit(
+                        () -> server.getUserGroups(current)
+                                .equals(searcher.searchGroups(EmbeddedLDAPServer.getUserName(current)))));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.ldap.role.searcher;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.naming.NamingException;
+import javax.naming.directory.DirContext;
+
+/**
+ * Measures throughput and latency percentiles of {@link LDAPClientImpl} and {@link LDAPSearcher} against
+ * {@link EmbeddedLDAPServer}. It is excluded from regular builds and has to be started explicitly:
+ * <pre>
+ *   mvn test -Dtest=LDAPSearcherThroughputTestRun -Dldap.benchmark.threads=32 -Dldap.benchmark.pool.maxsize=16
+ * </pre>
+ * Directory size, concurrency, duration and JNDI pool settings are configured through system properties
+ * with 'ldap.benchmark.' prefix, see constants below.
+ */
+public class LDAPSearcherThroughputTestRun {
+    private static final String PREFIX = "ldap.benchmark.";
+
+    private static final int USERS = Integer.getInteger(PREFIX + "users", 10000);
+    private static final int GROUPS = Integer.getInteger(PREFIX + "groups", 1000);
+    private static final int GROUPS_PER_USER = Integer.getInteger(PREFIX + "groups.per.user", 20);
+    private static final int LEVELS = Integer.getInteger(PREFIX + "levels", 3);
+    private static final int THREADS = Integer.getInteger(PREFIX + "threads", 16);
+    private static final int WARMUP_SECONDS = Integer.getInteger(PREFIX + "warmup.seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger(PREFIX + "duration.seconds", 30);
+
+    private static EmbeddedLDAPServer server;
+
+    @BeforeClass
+    public static void setUp() throws Exception {
+        server = new EmbeddedLDAPServer(USERS, GROUPS, GROUPS_PER_USER, LEVELS);
+        server.start();
+    }
+
+    @AfterClass
+    public static void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void testConnectionThroughput() throws Exception {
+        LDAPClient client = new LDAPClientImpl(createConfig());
+        client.testConnection();
+
+        run("LDAPClientImpl.getConnection", () -> {
+            DirContext context = client.getConnection();
+            context.close();
+        });
+    }
+
+    @Test
+    public void testSearchThroughput() throws Exception {
+        LDAPSearchConfig config = createConfig();
+        LDAPClient client = new LDAPClientImpl(config);
+        client.testConnection();
+        LDAPSearcher searcher = new LDAPSearcher(config, client);
+
+        run("LDAPSearcher.searchGroups", () -> {
+            int user = ThreadLocalRandom.current().nextInt(USERS);
+            searcher.searchGroups(EmbeddedLDAPServer.getUserName(user));
+        });
+    }
+
+    private static LDAPSearchConfig createConfig() {
+        return server.configBuilder()
+                .withPoolAuthentication(System.getProperty(PREFIX + "pool.authentication"))
+                .withPoolInitsize(System.getProperty(PREFIX + "pool.initsize"))
+                .withPoolMaxsize(System.getProperty(PREFIX + "pool.maxsize"))
+                .withPoolPrefsize(System.getProperty(PREFIX + "pool.prefsize"))
+                .withPoolTimeout(System.getProperty(PREFIX + "pool.timeout"))
+                .build();
+    }
+
+    private static void run(String name, Operation operation) throws Exception {
+        // Warm up JIT, connection pool and server caches before measuring
+        measure(operation, TimeUnit.SECONDS.toNanos(WARMUP_SECONDS));
+
+        long durationNanos = TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+        List<LatencyRecorder> recorders = measure(operation, durationNanos);
+
+        LatencyRecorder total = new LatencyRecorder();
+        long errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total.addAll(recorder);
+            errors += recorder.errors;
+        }
+        long[] latencies = total.sorted();
+
+        System.out.printf("%s: users=%d, groups=%d, groupsPerUser=%d, levels=%d, threads=%d%n",
+                          name, USERS, GROUPS, GROUPS_PER_USER, LEVELS, THREADS);
+        System.out.printf("  operations=%d, errors=%d, throughput=%.1f ops/s%n",
+                          latencies.length, errors, latencies.length / (double) DURATION_SECONDS);
+        if (latencies.length > 0) {
+            System.out.printf("  latency, us: p50=%d, p90=%d, p99=%d, p99.9=%d, max=%d%n",
+                              percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+                              percentile(latencies, 99.9), percentile(latencies, 100));
+        }
+    }
+
+    private static List<LatencyRecorder> measure(Operation operation, long durationNanos) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        try {
+            List<Future<LatencyRecorder>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    LatencyRecorder recorder = new LatencyRecorder();
+                    startLatch.await();
+                    long deadline = System.nanoTime() + durationNanos;
+                    for (long start = System.nanoTime(); start < deadline; start = System.nanoTime()) {
+                        try {
+                            operation.run();
+                            recorder.record(System.nanoTime() - start);
+                        } catch (Exception e) {
+                            recorder.errors++;
+                        }
+                    }
+                    return recorder;
+                }));
+            }
+            startLatch.countDown();
+
+            List<LatencyRecorder> recorders = new ArrayList<>();
+            for (Future<LatencyRecorder> future : futures) {
+                recorders.add(future.get());
+            }
+            return recorders;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long percentile(long[] sortedLatencies, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * sortedLatencies.length) - 1;
+        return TimeUnit.NANOSECONDS.toMicros(sortedLatencies[Math.max(0, index)]);
+    }
+
+    /**
+     * Operation executed by every benchmark thread in a loop
+     */
+    private interface Operation {
+        void run() throws NamingException;
+    }
+
+    /**
+     * Growable array of latencies owned by a single thread, avoids boxing while measuring
+     */
+    private static final class LatencyRecorder {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+
+        void record(long latency) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latency;
+        }
+
+        void addAll(LatencyRecorder other) {
+            for (int i = 0; i < other.size; i++) {
+                record(other.latencies[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] result = Arrays.copyOf(latencies, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright © 2021-2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests for {@link LatencyHistogram} class
+ */
+public class LatencyHistogramTest {
+
+  @Test
+  public void testEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    Assert.assertEquals(0, histogram.getCount());
+    Assert.assertEquals(0, histogram.getPercentile(99));
+    Assert.assertEquals(0, histogram.getMean(), 0);
+  }
+
+  @Test
+  public void testBucketsAreContiguous() {
+    for (long value = 0; value < 100000; value++) {
+      int index = LatencyHistogram.getBucketIndex(value);
+      Assert.assertTrue(value <= LatencyHistogram.getBucketUpperBound(index));
+      if (index > 0) {
+        Assert.assertTrue(value > LatencyHistogram.getBucketUpperBound(index - 1));
+      }
+    }
+  }
+
+  @Test
+  public void testPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 10000; value++) {
+      histogram.record(value);
+    }
+
+    Assert.assertEquals(10000, histogram.getCount());
+    Assert.assertEquals(10000, histogram.getMax());
+    Assert.assertEquals(5000.5, histogram.getMean(), 0.001);
+    assertWithinPrecision(5000, histogram.getPercentile(50));
+    assertWithinPrecision(9900, histogram.getPercentile(99));
+    Assert.assertEquals(10000, histogram.getPercentile(100));
+  }
+
+  @Test
+  public void testOutOfRangeValues() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-1);
+    histogram.record(Long.MAX_VALUE);
+
+    Assert.assertEquals(2, histogram.getCount());
+    Assert.assertEquals(0, histogram.getPercentile(50));
+    Assert.assertEquals(histogram.getMax(), histogram.getPercentile(100));
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    // Buckets are 1/16 of power of two wide
+    Assert.assertTrue(String.format("Expected %d, got %d", expected, actual),
+                      actual >= expected && actual <= expected + expected / 16);
+  }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.security.Action;
+import io.cdap.cdap.proto.security.Principal;
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+import io.cdap.cdap.security.authorization.sentry.model.ActionConstant;
+import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable.AuthorizableType;
+import io.cdap.cdap.security.authorization.sentry.policy.ModelAuthorizables;
+import io.cdap.cdap.security.authorization.sentry.policy.WildcardPrivilege;
+import io.cdap.cdap.security.spi.authorization.AuthorizationContext;
+import org.apache.sentry.policy.common.KeyValue;
+import org.apache.sentry.policy.common.PolicyConstants;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Generates policies of configurable size with a realistic mix of wildcards and wires {@link SentryAuthorizer} to an
+ * offline policy snapshot of them, so benchmarks measure only in-process evaluation.
+ */
+final class BenchmarkFixture {
+  static final String INSTANCE = "cdap";
+  static final String USER = "benchmark";
+
+  private static final String GROUP = "benchmark";
+  private static final int POLICIES_PER_NAMESPACE = 100;
+  private static final int POLICIES_PER_ROLE = 100;
+  private static final String[] ACTIONS = {
+    ActionConstant.READ, ActionConstant.WRITE, ActionConstant.EXECUTE, ActionConstant.ADMIN
+  };
+
+  private BenchmarkFixture() {
+  }
+
+  /**
+   * Generates policies on applications and datasets in namespaces of 100 policies each. Of every ten policies, five
+   * are on literal applications, one on a literal dataset, and the others use a prefix, a single character, a suffix
+   * and a namespace wildcard.
+   *
+   * @param count Amount of policies
+   * @return Policies, each with an entity it allows
+   */
+  static List<GeneratedPolicy> generatePolicies(int count) {
+    List<GeneratedPolicy> policies = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String namespace = String.format("namespace%d", i / POLICIES_PER_NAMESPACE);
+      String action = ACTIONS[i % ACTIONS.length];
+      switch (i % 10) {
+        case 5:
+          policies.add(new GeneratedPolicy(namespace, AuthorizableType.DATASET, "dataset" + i, action,
+                                           namespace, "dataset" + i));
+          break;
+        case 6:
+          policies.add(new GeneratedPolicy(namespace, AuthorizableType.APPLICATION, "app" + i + "*", action,
+                                           namespace, "app" + i + "-v2"));
+          break;
+        case 7:
+          policies.add(new GeneratedPolicy(namespace, AuthorizableType.DATASET, "dataset" + i + "?", action,
+                                           namespace, "dataset" + i + "x"));
+          break;
+        case 8:
+          policies.add(new GeneratedPolicy(namespace, AuthorizableType.DATASET, "*_" + i, action,
+                                           namespace, "table_" + i));
+          break;
+        case 9:
+          policies.add(new GeneratedPolicy(namespace + "*", AuthorizableType.APPLICATION, "app" + i, action,
+                                           namespace + "_dev", "app" + i));
+          break;
+        default:
+          policies.add(new GeneratedPolicy(namespace, AuthorizableType.APPLICATION, "app" + i, action,
+                                           namespace, "app" + i));
+      }
+    }
+    return policies;
+  }
+
+  /**
+   * Creates {@link SentryAuthorizer} evaluating an offline policy snapshot, where the benchmark user is member of a
+   * group granted roles of 100 policies each
+   *
+   * @param policies Policies of the benchmark user
+   * @return Initialized authorizer, temporary files are deleted on exit
+   */
+  static SentryAuthorizer createAuthorizer(List<GeneratedPolicy> policies) throws Exception {
+    File dir = Files.createTempDirectory("sentry-benchmark").toFile();
+    dir.deleteOnExit();
+
+    Map<String, Set<String>> roleGroups = new LinkedHashMap<>();
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = new LinkedHashMap<>();
+    for (int i = 0; i < policies.size(); i++) {
+      String role = String.format("role%d", i / POLICIES_PER_ROLE);
+      if (!roleGroups.containsKey(role)) {
+        roleGroups.put(role, Collections.singleton(GROUP));
+        rolePrivileges.put(role, new HashSet<TSentryPrivilege>());
+      }
+      rolePrivileges.get(role).add(policies.get(i).toTSentryPrivilege());
+    }
+    File snapshot = createTempFile(dir, "policies.snapshot");
+    PolicySnapshot.write(snapshot, roleGroups, rolePrivileges);
+    File groups = writeTempFile(dir, "groups", USER + " = " + GROUP + "\n");
+    File sentrySite = writeTempFile(dir, "sentry-site.xml", "<configuration/>\n");
+
+    Properties properties = new Properties();
+    properties.setProperty(AuthConf.SENTRY_SITE_URL, sentrySite.getAbsolutePath());
+    properties.setProperty(AuthConf.INSTANCE_NAME, INSTANCE);
+    properties.setProperty(AuthConf.POLICY_SNAPSHOT_FILE, snapshot.getAbsolutePath());
+    properties.setProperty(AuthConf.GROUP_RESOLVER, "file");
+    properties.setProperty(AuthConf.GROUP_RESOLVER_FILE, groups.getAbsolutePath());
+    properties.setProperty(AuthConf.GROUP_RESOLVER_REFRESH_SECS, "0");
+
+    SentryAuthorizer authorizer = new SentryAuthorizer();
+    authorizer.initialize(createContext(properties));
+    return authorizer;
+  }
+
+  private static File createTempFile(File dir, String name) {
+    File file = new File(dir, name);
+    file.deleteOnExit();
+    return file;
+  }
+
+  private static File writeTempFile(File dir, String name, String content) throws IOException {
+    File file = createTempFile(dir, name);
+    Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  /**
+   * Creates {@link AuthorizationContext} which only provides the extension properties and the benchmark user
+   */
+  private static AuthorizationContext createContext(final Properties properties) {
+    final Principal principal = new Principal(USER, Principal.PrincipalType.USER);
+    return (AuthorizationContext) Proxy.newProxyInstance(
+      AuthorizationContext.class.getClassLoader(), new Class<?>[] { AuthorizationContext.class },
+      new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          switch (method.getName()) {
+            case "getExtensionProperties":
+              return properties;
+            case "getPrincipal":
+              return principal;
+            default:
+              throw new UnsupportedOperationException(method.getName() + " is not supported in benchmarks");
+          }
+        }
+      });
+  }
+
+  /**
+   * A generated policy on an application or dataset, with an entity it allows
+   */
+  static final class GeneratedPolicy {
+    private final String namespacePattern;
+    private final AuthorizableType type;
+    private final String namePattern;
+    private final String action;
+    private final String namespace;
+    private final String name;
+
+    private GeneratedPolicy(String namespacePattern, AuthorizableType type, String namePattern, String action,
+                            String namespace, String name) {
+      this.namespacePattern = namespacePattern;
+      this.type = type;
+      this.namePattern = namePattern;
+      this.action = action;
+      this.namespace = namespace;
+      this.name = name;
+    }
+
+    List<Authorizable> getAuthorizables() {
+      return toAuthorizables(namespacePattern, namePattern);
+    }
+
+    WildcardPolicy toWildcardPolicy() {
+      return new WildcardPolicy(getAuthorizables(), new ActionFactory.Action(action));
+    }
+
+    WildcardPrivilege toWildcardPrivilege() {
+      return toWildcardPrivilege(namespacePattern, namePattern);
+    }
+
+    TSentryPrivilege toTSentryPrivilege() {
+      List<TAuthorizable> authorizables = new ArrayList<>();
+      for (Authorizable authorizable : getAuthorizables()) {
+        authorizables.add(new TAuthorizable(authorizable.getAuthzType().name(), authorizable.getName()));
+      }
+      return new TSentryPrivilege(INSTANCE, INSTANCE, authorizables, action);
+    }
+
+    EntityId getEntity() {
+      NamespaceId namespaceId = new NamespaceId(namespace);
+      return type == AuthorizableType.APPLICATION ? namespaceId.app(name) : namespaceId.dataset(name);
+    }
+
+    Action getAction() {
+      return Action.valueOf(action.toUpperCase());
+    }
+
+    ActionFactory.Action getSentryAction() {
+      return new ActionFactory.Action(action);
+    }
+
+    /**
+     * @return Sentry authorizables of the entity allowed by this policy
+     */
+    List<Authorizable> getEntityAuthorizables() {
+      return toAuthorizables(namespace, name);
+    }
+
+    /**
+     * @return request privilege for the action of this policy on the entity allowed by it
+     */
+    WildcardPrivilege getEntityPrivilege() {
+      return toWildcardPrivilege(namespace, name);
+    }
+
+    private List<Authorizable> toAuthorizables(String namespaceName, String entityName) {
+      return Arrays.asList(ModelAuthorizables.from(AuthorizableType.INSTANCE.name(), INSTANCE),
+                           ModelAuthorizables.from(AuthorizableType.NAMESPACE.name(), namespaceName),
+                           ModelAuthorizables.from(type.name(), entityName));
+    }
+
+    private WildcardPrivilege toWildcardPrivilege(String namespaceName, String entityName) {
+      return new WildcardPrivilege(PolicyConstants.AUTHORIZABLE_JOINER.join(
+        new KeyValue(AuthorizableType.INSTANCE.name(), INSTANCE),
+        new KeyValue(AuthorizableType.NAMESPACE.name(), namespaceName),
+        new KeyValue(type.name(), entityName),
+        new KeyValue(ActionConstant.ACTION_NAME, action)));
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.security.authorization.sentry.binding.BenchmarkFixture.GeneratedPolicy;
+import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import io.cdap.cdap.security.authorization.sentry.policy.WildcardPrivilege;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of matching single policies against entities. Every invocation takes the next policy of the set, so the
+ * size of the set shows the effect of policies and entities no longer fitting into CPU caches.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyMatchingBenchmark {
+
+  @Param({"10", "1000", "100000"})
+  private int policies;
+
+  private WildcardAuthorizable[] policyAuthorizables;
+  private Authorizable[] entityAuthorizables;
+  private WildcardPolicy[] wildcardPolicies;
+  private List<List<Authorizable>> entities;
+  private ActionFactory.Action[] actions;
+  private WildcardPrivilege[] privileges;
+  private WildcardPrivilege[] requestPrivileges;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    List<GeneratedPolicy> generated = BenchmarkFixture.generatePolicies(policies);
+    policyAuthorizables = new WildcardAuthorizable[policies];
+    entityAuthorizables = new Authorizable[policies];
+    wildcardPolicies = new WildcardPolicy[policies];
+    entities = new ArrayList<>(policies);
+    actions = new ActionFactory.Action[policies];
+    privileges = new WildcardPrivilege[policies];
+    requestPrivileges = new WildcardPrivilege[policies];
+    for (int i = 0; i < policies; i++) {
+      GeneratedPolicy policy = generated.get(i);
+      wildcardPolicies[i] = policy.toWildcardPolicy();
+      List<WildcardAuthorizable> authorizables = wildcardPolicies[i].getAuthorizables();
+      policyAuthorizables[i] = authorizables.get(authorizables.size() - 1);
+      entities.add(policy.getEntityAuthorizables());
+      entityAuthorizables[i] = entities.get(i).get(entities.get(i).size() - 1);
+      actions[i] = policy.getSentryAction();
+      privileges[i] = policy.toWildcardPrivilege();
+      requestPrivileges[i] = policy.getEntityPrivilege();
+    }
+  }
+
+  @Benchmark
+  public boolean authorizableMatches(Cursor cursor) {
+    int position = cursor.next(policies);
+    return policyAuthorizables[position].matches(entityAuthorizables[position]);
+  }
+
+  @Benchmark
+  public boolean policyIsAllowed(Cursor cursor) {
+    int position = cursor.next(policies);
+    return wildcardPolicies[position].isAllowed(entities.get(position), actions[position]);
+  }
+
+  /**
+   * Checks policies against the entity of the next policy, which is mostly denied
+   */
+  @Benchmark
+  public boolean policyIsDenied(Cursor cursor) {
+    int position = cursor.next(policies);
+    int other = position + 1 < policies ? position + 1 : 0;
+    return wildcardPolicies[position].isAllowed(entities.get(other), actions[position]);
+  }
+
+  @Benchmark
+  public boolean policyIsVisible(Cursor cursor) {
+    int position = cursor.next(policies);
+    return wildcardPolicies[position].isVisible(entities.get(position));
+  }
+
+  @Benchmark
+  public boolean privilegeImplies(Cursor cursor) {
+    int position = cursor.next(policies);
+    return privileges[position].implies(requestPrivileges[position]);
+  }
+
+  /**
+   * Per thread position in array of policies, so every invocation checks another policy
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    int next(int bound) {
+      position = position + 1 < bound ? position + 1 : 0;
+      return position;
+    }
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.proto.id.NamespaceId;
+import io.cdap.cdap.proto.security.Action;
+import io.cdap.cdap.proto.security.Principal;
+import io.cdap.cdap.security.authorization.sentry.binding.BenchmarkFixture.GeneratedPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of {@link SentryAuthorizer} enforcement methods with growing amount of policies, evaluated from an
+ * offline policy snapshot
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SentryAuthorizerBenchmark {
+  private static final Principal PRINCIPAL = new Principal(BenchmarkFixture.USER, Principal.PrincipalType.USER);
+
+  @Param({"10", "1000", "100000"})
+  private int policies;
+
+  // entities in a visibility request, half of them are not visible
+  @Param({"1000"})
+  private int entities;
+
+  private SentryAuthorizer authorizer;
+  private EntityId[] allowedEntities;
+  private Set<Action>[] allowedActions;
+  private Set<EntityId> visibilityRequest;
+
+  @Setup(Level.Trial)
+  @SuppressWarnings("unchecked")
+  public void setUp() throws Exception {
+    List<GeneratedPolicy> generated = BenchmarkFixture.generatePolicies(policies);
+    authorizer = BenchmarkFixture.createAuthorizer(generated);
+
+    allowedEntities = new EntityId[policies];
+    allowedActions = new Set[policies];
+    for (int i = 0; i < policies; i++) {
+      allowedEntities[i] = generated.get(i).getEntity();
+      allowedActions[i] = Collections.singleton(generated.get(i).getAction());
+    }
+
+    visibilityRequest = new HashSet<>();
+    for (int i = 0; i < entities; i++) {
+      if (i % 2 == 0) {
+        visibilityRequest.add(allowedEntities[(i / 2) % policies]);
+      } else {
+        visibilityRequest.add(new NamespaceId(String.format("other%d", i % 10)).app(String.format("app%d", i)));
+      }
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    authorizer.destroy();
+  }
+
+  @Benchmark
+  public void enforce(Cursor cursor) throws Exception {
+    int position = cursor.next(policies);
+    authorizer.enforce(allowedEntities[position], PRINCIPAL, allowedActions[position]);
+  }
+
+  @Benchmark
+  public Set<? extends EntityId> isVisible() throws Exception {
+    return authorizer.isVisible(visibilityRequest, PRINCIPAL);
+  }
+
+  /**
+   * Per thread position in array of entities, so every invocation checks another entity
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    int next(int bound) {
+      position = position + 1 < bound ? position + 1 : 0;
+      return position;
+    }
+  }
+}
@@ -20,10 +20,21 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListenableFutureTask;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.element.EntityType;
 import io.cdap.cdap.proto.id.EntityId;
@@ -33,6 +44,9 @@ import io.cdap.cdap.proto.security.Privilege;
 import io.cdap.cdap.proto.security.Role;
 import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
 import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf.AuthzConfVars;
+import io.cdap.cdap.security.authorization.sentry.binding.metrics.CommandMetrics;
+import io.cdap.cdap.security.authorization.sentry.binding.metrics.SentryBindingMetrics;
+import io.cdap.cdap.security.authorization.sentry.model.ActionConstant;
 import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
 import io.cdap.cdap.security.authorization.sentry.model.Application;
 import io.cdap.cdap.security.authorization.sentry.model.Artifact;
@@ -69,18 +83,32 @@ import org.apache.sentry.provider.db.generic.service.thrift.TSentryRole;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 
@@ -89,31 +117,173 @@ import javax.annotation.Nullable;
  * performing different authorization operation on CDAP entities by mapping them to authorizables
  * {@link #toSentryAuthorizables(io.cdap.cdap.proto.security.Authorizable)}
  */
-class AuthBinding {
+class AuthBinding implements Closeable {
   private static final Logger LOG = LoggerFactory.getLogger(AuthBinding.class);
   private static final String COMPONENT_NAME = "cdap";
+  // Policies by normalized privilege, so that roles with the same privileges share the same policy objects
+  private static final Cache<String, WildcardPolicy> POLICIES = CacheBuilder.newBuilder().weakValues().build();
+  // actions covered by a Sentry privilege for all actions
+  private static final Set<Action> ALL_ACTIONS = Collections.unmodifiableSet(
+    EnumSet.of(Action.READ, Action.WRITE, Action.EXECUTE, Action.ADMIN));
+  // Sentry action codes by ordinal of the CDAP action, zero for actions Sentry doesn't know
+  private static final int[] ACTION_CODES = new int[Action.values().length];
+
+  static {
+    for (Action action : Action.values()) {
+      for (ActionFactory.ActionType actionType : ActionFactory.ActionType.values()) {
+        if (actionType.name().equals(action.name())) {
+          ACTION_CODES[action.ordinal()] = actionType.getCode();
+        }
+      }
+    }
+  }
+
   private final AuthConf authConf;
   private final AuthorizationProvider authProvider;
+  // Policy snapshot evaluated instead of calling Sentry, see AuthConf#POLICY_SNAPSHOT_FILE
+  @Nullable
+  private final File offlineSnapshotFile;
+  // Reads all roles and privileges, from Sentry or from the policy snapshot if offline
+  private final SentryPolicyReplica.Source policySource;
+  // Resolves groups of users on group cache misses, see AuthConf#GROUP_RESOLVER
+  private final MeteredGroupResolver groupResolver;
   private final String instanceName;
   private final String sentryAdminGroup;
+  private final SentryClientPool clientPool;
+  // Detects that Sentry is unreachable, so that cache loads fail fast and stale values are served instead
+  private final SentryOutageTracker outageTracker;
+  // Executor reloading expired cache entries in the background
+  private final ExecutorService reloadExecutor;
+  // Executor running the Sentry calls of bulk cache loads concurrently, sized like the client pool
+  private final ExecutorService fetchExecutor;
+  // Latencies and errors of Sentry calls and group lookups, and statistics of the caches, published through JMX
+  private final SentryBindingMetrics metrics = new SentryBindingMetrics();
 
+  // Estimated weights of the caches below, only used by the ones bounded by a memory budget
+  private final CacheWeigher<Principal, Set<String>> groupWeigher = CacheWeigher.forGroups();
+  private final CacheWeigher<String, Set<Role>> roleWeigher = CacheWeigher.forRoles();
+  private final CacheWeigher<Role, Set<WildcardPolicy>> policyWeigher = CacheWeigher.forPolicies();
+  private final CacheWeigher<String, Set<Role>> lastLoadedRoleWeigher = CacheWeigher.forRoles();
+  private final CacheWeigher<Role, Set<WildcardPolicy>> lastLoadedPolicyWeigher = CacheWeigher.forPolicies();
   // Cache for principal to groups the principal is part of
   private final LoadingCache<Principal, Set<String>> groupCache;
   // Cache for group to set of roles the group is part of
   private final LoadingCache<String, Set<Role>> roleCache;
   // Cache for role to set of policies for the role
   private final LoadingCache<Role, Set<WildcardPolicy>> policyCache;
+  // Last successfully loaded roles and policies, served for a grace period after the cache entry expired if Sentry
+  // is unreachable
+  private final Cache<String, Set<Role>> lastLoadedRoles;
+  private final Cache<Role, Set<WildcardPolicy>> lastLoadedPolicies;
+  // Cache for user principal to its policies compiled into a PolicyIndex, invalidated whenever an entry of the caches
+  // above it was compiled from is reloaded with a different value, evicted or expires
+  private final Cache<Principal, CompiledPolicies> policyIndexCache;
+  // Reverse index from groups and roles to the principals whose cached compiled policies were read from their
+  // entries in roleCache and policyCache, so that a removed entry only invalidates the affected principals
+  private final Object policyIndexLock = new Object();
+  private final Map<String, Set<Principal>> groupPrincipals = new HashMap<>();
+  private final Map<Role, Set<Principal>> rolePrincipals = new HashMap<>();
+  // Cache for entity to its immutable Sentry authorizables
+  private final LoadingCache<EntityId, List<Authorizable>> entityAuthorizablesCache;
+  // Bounded interner of authorizable paths, so that entities under the same parents share the parent authorizables
+  private final Cache<List<Authorizable>, List<Authorizable>> authorizablePaths;
+  // Local replica of roles and privileges, replaces role and policy caches if enabled
+  @Nullable
+  private final SentryPolicyReplica replica;
 
   AuthBinding(String sentrySite, final String instanceName, final String sentryAdminGroup,
               int cacheTtlSecs, int cacheMaxEntries) {
+    this(sentrySite, instanceName, sentryAdminGroup, cacheTtlSecs, cacheMaxEntries, new Properties());
+  }
+
+  /**
+   * @param properties extension properties from cdap-site.xml with optional tuning settings, see {@link AuthConf}
+   */
+  AuthBinding(String sentrySite, final String instanceName, final String sentryAdminGroup,
+              int cacheTtlSecs, int cacheMaxEntries, Properties properties) {
     this.authConf = initAuthzConf(sentrySite);
     this.instanceName = instanceName;
     this.authProvider = createAuthProvider();
+    String snapshotPath = properties.getProperty(AuthConf.POLICY_SNAPSHOT_FILE);
+    if (Strings.isNullOrEmpty(snapshotPath)) {
+      this.offlineSnapshotFile = null;
+      this.policySource = new SentryPolicyReplica.Source() {
+        @Override
+        public Map<String, Set<String>> listRoleGroups() throws Exception {
+          return fetchRoleGroups();
+        }
+
+        @Override
+        public Set<TSentryPrivilege> listPrivileges(String role) throws Exception {
+          return fetchPrivileges(role);
+        }
+      };
+    } else {
+      this.offlineSnapshotFile = new File(snapshotPath);
+      try {
+        this.policySource = PolicySnapshot.read(offlineSnapshotFile);
+      } catch (IOException e) {
+        throw Throwables.propagate(e);
+      }
+    }
+    this.groupResolver = new MeteredGroupResolver(createGroupResolver(properties));
     this.sentryAdminGroup = sentryAdminGroup;
 
-    groupCache = CacheBuilder.newBuilder()
-      .expireAfterWrite(cacheTtlSecs, TimeUnit.SECONDS)
-      .maximumSize(cacheMaxEntries)
+    int poolMaxSize = Integer.parseInt(properties.getProperty(AuthConf.CLIENT_POOL_MAX_SIZE,
+                                                              AuthConf.CLIENT_POOL_MAX_SIZE_DEFAULT));
+    int poolIdleTimeoutSecs = Integer.parseInt(properties.getProperty(AuthConf.CLIENT_POOL_IDLE_TIMEOUT_SECS,
+                                                                      AuthConf.CLIENT_POOL_IDLE_TIMEOUT_SECS_DEFAULT));
+    this.clientPool = new SentryClientPool(new SentryClientPool.ClientFactory() {
+      @Override
+      public SentryGenericServiceClient create() throws Exception {
+        return SentryGenericServiceClientFactory.create(authConf);
+      }
+    }, poolMaxSize, TimeUnit.SECONDS.toMillis(poolIdleTimeoutSecs));
+    this.fetchExecutor = Executors.newFixedThreadPool(
+      poolMaxSize, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-fetch-%d").build());
+
+    long probeMinBackoffMillis = Long.parseLong(properties.getProperty(AuthConf.OUTAGE_PROBE_MIN_BACKOFF_MS,
+                                                                       AuthConf.OUTAGE_PROBE_MIN_BACKOFF_MS_DEFAULT));
+    long probeMaxBackoffMillis = Long.parseLong(properties.getProperty(AuthConf.OUTAGE_PROBE_MAX_BACKOFF_MS,
+                                                                       AuthConf.OUTAGE_PROBE_MAX_BACKOFF_MS_DEFAULT));
+    this.outageTracker = new SentryOutageTracker(new SentryOutageTracker.Probe() {
+      @Override
+      public void run() throws Exception {
+        execute(SentryBindingMetrics.OUTAGE_PROBE, new ReadCommand<Set<TSentryRole>>() {
+          @Override
+          public Set<TSentryRole> run(SentryGenericServiceClient client) throws Exception {
+            return client.listRolesByGroupName(sentryAdminGroup, sentryAdminGroup, COMPONENT_NAME);
+          }
+        });
+      }
+    }, probeMinBackoffMillis, probeMaxBackoffMillis);
+
+    int groupTtlSecs = getCacheTtl(properties, AuthConf.GROUP_CACHE_TTL_SECS, cacheTtlSecs);
+    int roleTtlSecs = getCacheTtl(properties, AuthConf.ROLE_CACHE_TTL_SECS, cacheTtlSecs);
+    int policyTtlSecs = getCacheTtl(properties, AuthConf.POLICY_CACHE_TTL_SECS, cacheTtlSecs);
+    String expirySecs = properties.getProperty(AuthConf.CACHE_EXPIRY_SECS);
+    int reloadThreads = Integer.parseInt(properties.getProperty(AuthConf.CACHE_RELOAD_THREADS,
+                                                                AuthConf.CACHE_RELOAD_THREADS_DEFAULT));
+    this.reloadExecutor = Executors.newFixedThreadPool(
+      reloadThreads, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-cache-reload-%d").build());
+
+    int staleGraceSecs = Integer.parseInt(properties.getProperty(AuthConf.CACHE_STALE_GRACE_SECS,
+                                                                 AuthConf.CACHE_STALE_GRACE_SECS_DEFAULT));
+    long roleMaxBytes = getCacheMaxBytes(properties, AuthConf.ROLE_CACHE_MAX_BYTES);
+    long policyMaxBytes = getCacheMaxBytes(properties, AuthConf.POLICY_CACHE_MAX_BYTES);
+    lastLoadedRoles = newLastLoadedCache(roleTtlSecs, expirySecs, staleGraceSecs, cacheMaxEntries,
+                                         lastLoadedRoleWeigher, roleMaxBytes);
+    lastLoadedPolicies = newLastLoadedCache(policyTtlSecs, expirySecs, staleGraceSecs, cacheMaxEntries,
+                                            lastLoadedPolicyWeigher, policyMaxBytes);
+
+    groupCache = newCacheBuilder(groupTtlSecs, expirySecs, cacheMaxEntries, groupWeigher,
+                                 getCacheMaxBytes(properties, AuthConf.GROUP_CACHE_MAX_BYTES),
+                                 new RemovalListener<Principal, Set<String>>() {
+                                   @Override
+                                   public void onRemoval(RemovalNotification<Principal, Set<String>> notification) {
+                                     onGroupsRemoved(notification);
+                                   }
+                                 })
       .build(new CacheLoader<Principal, Set<String>>() {
         @SuppressWarnings("NullableProblems")
         @Override
@@ -121,31 +291,201 @@ class AuthBinding {
           LOG.trace("Group cache miss for principal {}", principal);
           return fetchGroups(principal);
         }
+
+        @SuppressWarnings("NullableProblems")
+        @Override
+        public ListenableFuture<Set<String>> reload(final Principal principal, Set<String> oldGroups) {
+          return reloadAsync(new Callable<Set<String>>() {
+            @Override
+            public Set<String> call() throws Exception {
+              LOG.trace("Reloading groups of principal {}", principal);
+              return fetchGroups(principal);
+            }
+          }, oldGroups);
+        }
       });
 
-    roleCache = CacheBuilder.newBuilder()
-      .expireAfterWrite(cacheTtlSecs, TimeUnit.SECONDS)
-      .maximumSize(cacheMaxEntries)
+    roleCache = newCacheBuilder(roleTtlSecs, expirySecs, cacheMaxEntries, roleWeigher, roleMaxBytes,
+                                new RemovalListener<String, Set<Role>>() {
+                                  @Override
+                                  public void onRemoval(RemovalNotification<String, Set<Role>> notification) {
+                                    onRolesRemoved(notification);
+                                  }
+                                })
       .build(new CacheLoader<String, Set<Role>>() {
         @SuppressWarnings("NullableProblems")
         @Override
         public Set<Role> load(final String group) throws Exception {
           LOG.trace("Role cache miss for group {}", group);
-          return fetchRoles(group);
+          return loadRoles(group);
+        }
+
+        @SuppressWarnings("NullableProblems")
+        @Override
+        public Map<String, Set<Role>> loadAll(Iterable<? extends String> groups) throws Exception {
+          LOG.trace("Role cache miss for groups {}", groups);
+          return loadRoles(groups);
+        }
+
+        @SuppressWarnings("NullableProblems")
+        @Override
+        public ListenableFuture<Set<Role>> reload(final String group, Set<Role> oldRoles) {
+          return reloadAsync(new Callable<Set<Role>>() {
+            @Override
+            public Set<Role> call() throws Exception {
+              LOG.trace("Reloading roles of group {}", group);
+              return loadRoles(group);
+            }
+          }, oldRoles);
         }
       });
 
-    policyCache = CacheBuilder.newBuilder()
-      .expireAfterWrite(cacheTtlSecs, TimeUnit.SECONDS)
-      .maximumSize(cacheMaxEntries)
+    policyCache = newCacheBuilder(policyTtlSecs, expirySecs, cacheMaxEntries, policyWeigher, policyMaxBytes,
+                                  new RemovalListener<Role, Set<WildcardPolicy>>() {
+                                    @Override
+                                    public void onRemoval(RemovalNotification<Role, Set<WildcardPolicy>> notification) {
+                                      onPoliciesRemoved(notification);
+                                    }
+                                  })
       .build(new CacheLoader<Role, Set<WildcardPolicy>>() {
         @SuppressWarnings("NullableProblems")
         @Override
         public Set<WildcardPolicy> load(final Role role) throws Exception {
           LOG.trace("Policy cache miss for role {}", role);
-          return fetchPolicies(role);
+          return loadPolicies(role);
+        }
+
+        @SuppressWarnings("NullableProblems")
+        @Override
+        public ListenableFuture<Set<WildcardPolicy>> reload(final Role role, Set<WildcardPolicy> oldPolicies) {
+          return reloadAsync(new Callable<Set<WildcardPolicy>>() {
+            @Override
+            public Set<WildcardPolicy> call() throws Exception {
+              LOG.trace("Reloading policies of role {}", role);
+              return loadPolicies(role);
+            }
+          }, oldPolicies);
         }
       });
+
+    // compiled policies expire when the first cache entries are refreshed, so that the entries they were compiled
+    // from are still read and reloaded in the background once stale
+    int indexExpirySecs = Math.min(getCacheRefresh(groupTtlSecs, expirySecs),
+                                   Math.min(getCacheRefresh(roleTtlSecs, expirySecs),
+                                            getCacheRefresh(policyTtlSecs, expirySecs)));
+    policyIndexCache = CacheBuilder.newBuilder()
+      .expireAfterWrite(indexExpirySecs, TimeUnit.SECONDS)
+      .maximumSize(cacheMaxEntries)
+      .removalListener(new RemovalListener<Principal, CompiledPolicies>() {
+        @Override
+        public void onRemoval(RemovalNotification<Principal, CompiledPolicies> notification) {
+          unindexPolicies(notification.getKey(), notification.getValue());
+        }
+      })
+      .build();
+
+    int entityCacheMaxEntries = Integer.parseInt(properties.getProperty(AuthConf.ENTITY_CACHE_MAX_ENTRIES,
+                                                                        AuthConf.ENTITY_CACHE_MAX_ENTRIES_DEFAULT));
+    authorizablePaths = CacheBuilder.newBuilder()
+      .maximumSize(entityCacheMaxEntries)
+      .build();
+    entityAuthorizablesCache = CacheBuilder.newBuilder()
+      .maximumSize(entityCacheMaxEntries)
+      .build(new CacheLoader<EntityId, List<Authorizable>>() {
+        @SuppressWarnings("NullableProblems")
+        @Override
+        public List<Authorizable> load(EntityId entityId) {
+          return toAuthorizablePath(entityId);
+        }
+      });
+
+    metrics.addCache(SentryBindingMetrics.GROUP_CACHE, groupCache);
+    metrics.addCache(SentryBindingMetrics.ROLE_CACHE, roleCache);
+    metrics.addCache(SentryBindingMetrics.POLICY_CACHE, policyCache);
+    metrics.register();
+
+    // the snapshot is evaluated through a replica which never polls
+    boolean offline = offlineSnapshotFile != null;
+    if (offline || Boolean.parseBoolean(properties.getProperty(AuthConf.REPLICA_ENABLED,
+                                                               AuthConf.REPLICA_ENABLED_DEFAULT))) {
+      long pollIntervalSecs = offline ? 0 : Long.parseLong(properties.getProperty(
+        AuthConf.REPLICA_POLL_INTERVAL_SECS, AuthConf.REPLICA_POLL_INTERVAL_SECS_DEFAULT));
+      long resyncIntervalSecs = Long.parseLong(properties.getProperty(AuthConf.REPLICA_RESYNC_INTERVAL_SECS,
+                                                                      AuthConf.REPLICA_RESYNC_INTERVAL_SECS_DEFAULT));
+      this.replica = new SentryPolicyReplica(policySource, fetchExecutor, TimeUnit.SECONDS.toMillis(pollIntervalSecs),
+                                             TimeUnit.SECONDS.toMillis(resyncIntervalSecs));
+      try {
+        replica.start();
+      } catch (Exception e) {
+        close();
+        throw Throwables.propagate(e);
+      }
+      if (offline) {
+        LOG.info("Loaded Sentry policies from snapshot {}, Sentry will not be called", offlineSnapshotFile);
+      } else {
+        LOG.info("Loaded replica of Sentry policies, polling for changes every {} seconds", pollIntervalSecs);
+      }
+    } else {
+      this.replica = null;
+    }
+  }
+
+  /**
+   * Returns the estimated heap used by the group, role and policy caches and by the roles and policies loaded last,
+   * for capacity planning. Weights are only tracked for the caches which are bounded by a memory budget.
+   *
+   * @return estimated bytes used by the cache, by name of the cache
+   */
+  Map<String, Long> getCacheWeights() {
+    Map<String, Long> weights = new LinkedHashMap<>();
+    weights.put("group", groupWeigher.getTotalWeight());
+    weights.put("role", roleWeigher.getTotalWeight());
+    weights.put("policy", policyWeigher.getTotalWeight());
+    weights.put("role.lastLoaded", lastLoadedRoleWeigher.getTotalWeight());
+    weights.put("policy.lastLoaded", lastLoadedPolicyWeigher.getTotalWeight());
+    return weights;
+  }
+
+  /**
+   * Writes all roles with their groups and privileges to a policy snapshot file, which can be evaluated without
+   * Sentry, see {@link AuthConf#POLICY_SNAPSHOT_FILE}. The privileges of the roles are fetched concurrently.
+   *
+   * @param file the file to write, replaced if it exists
+   * @throws Exception if there was any exception while fetching roles and privileges or writing the file
+   */
+  void exportPolicySnapshot(File file) throws Exception {
+    Map<String, Set<String>> roleGroups = policySource.listRoleGroups();
+    Map<String, Future<Set<TSentryPrivilege>>> futures = new LinkedHashMap<>();
+    for (final String role : roleGroups.keySet()) {
+      futures.put(role, fetchExecutor.submit(new Callable<Set<TSentryPrivilege>>() {
+        @Override
+        public Set<TSentryPrivilege> call() throws Exception {
+          return policySource.listPrivileges(role);
+        }
+      }));
+    }
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = new HashMap<>();
+    try {
+      for (Map.Entry<String, Future<Set<TSentryPrivilege>>> entry : futures.entrySet()) {
+        rolePrivileges.put(entry.getKey(), getFutureValue(entry.getValue()));
+      }
+    } finally {
+      for (Future<Set<TSentryPrivilege>> future : futures.values()) {
+        future.cancel(true);
+      }
+    }
+    PolicySnapshot.write(file, roleGroups, rolePrivileges);
+    LOG.info("Exported {} roles to policy snapshot {}", roleGroups.size(), file);
+  }
+
+  /**
+   * Returns the number of group lookups, failed lookups and their latency in microseconds. Snapshot resolvers
+   * also report the number of users in the snapshot, failed refreshes and the time of the last refresh.
+   *
+   * @return metrics of the group resolver, by name
+   */
+  Map<String, Long> getGroupResolverMetrics() {
+    return groupResolver.getMetrics();
   }
 
   /**
@@ -156,12 +496,51 @@ class AuthBinding {
 
     Set<WildcardPolicy> policies = new HashSet<>();
     for (Role role : roles) {
-      Set<WildcardPolicy> policy = policyCache.get(role);
+      Set<WildcardPolicy> policy = getRolePolicies(role);
       policies.addAll(policy);
     }
     return Collections.unmodifiableSet(policies);
   }
 
+  /**
+   * Returns policies for the given principal compiled into a {@link PolicyIndex}. The index of a user is cached until
+   * one of the group, role and policy cache entries it was compiled from is reloaded with a different value, evicted
+   * or expires, which removes it through the removal listeners of these caches. With a replica, the index is
+   * recompiled once the version of the replica changed.
+   *
+   * @return policies for the given principal compiled into a {@link PolicyIndex}
+   */
+  PolicyIndex getPolicyIndex(Principal principal) throws Exception {
+    if (principal.getType() != Principal.PrincipalType.USER) {
+      return PolicyIndex.compile(getPolicies(principal));
+    }
+
+    CompiledPolicies compiled = policyIndexCache.getIfPresent(principal);
+    if (compiled != null && (replica == null || compiled.replicaVersion == replica.getVersion())) {
+      return compiled.index;
+    }
+
+    LOG.trace("Compiling policies for principal {}", principal);
+    compiled = compilePolicies(principal);
+    synchronized (policyIndexLock) {
+      if (replica == null) {
+        for (String group : compiled.groupRoles.keySet()) {
+          addPrincipal(groupPrincipals, group, principal);
+        }
+        for (Role role : compiled.rolePolicies.keySet()) {
+          addPrincipal(rolePrincipals, role, principal);
+        }
+      }
+      policyIndexCache.put(principal, compiled);
+    }
+    // an entry replaced while compiling was notified before the index was cached, or the index was compiled from
+    // values loaded before, which are not cached
+    if (!isCached(principal, compiled)) {
+      policyIndexCache.asMap().remove(principal, compiled);
+    }
+    return compiled.index;
+  }
+
   /**
    * Grants the specified {@link Action actions} on the specified {@link io.cdap.cdap.proto.security.Authorizable}
    * to the specified {@link Role}.
@@ -172,20 +551,36 @@ class AuthBinding {
    * @param requestingUser the user executing this operation
    * @throws Exception when there is any exception while running the client command to grant for user
    */
-  void grant(final io.cdap.cdap.proto.security.Authorizable authorizable, final Role role, final Set<Action> actions,
-             final String requestingUser) throws Exception {
+  void grant(io.cdap.cdap.proto.security.Authorizable authorizable, Role role, Set<Action> actions,
+             String requestingUser) throws Exception {
     LOG.debug("Granting actions {} on entity {} for role {}; Requesting user: {}",
               actions, authorizable, role, requestingUser);
-    execute(new Command<Void>() {
+    grant(toRolePrivileges(authorizable, role, actions), requestingUser);
+  }
+
+  /**
+   * Grants the given {@link Privilege privileges} to their {@link Role roles}. Privileges for all four actions on an
+   * authorizable are granted as a single privilege for all actions, all privileges are granted over one client.
+   *
+   * @param privileges the privileges to grant for every role
+   * @param requestingUser the user executing this operation
+   * @throws Exception when there is any exception while running the client command to grant the privileges
+   */
+  void grant(Multimap<Role, Privilege> privileges, final String requestingUser) throws Exception {
+    final Map<String, List<TSentryPrivilege>> rolePrivileges = toTSentryPrivileges(privileges);
+    LOG.debug("Granting privileges {}; Requesting user: {}", rolePrivileges, requestingUser);
+    execute(SentryBindingMetrics.PRIVILEGE_GRANT, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
-        for (final Action action : actions) {
-          client.grantPrivilege(requestingUser, role.getName(), COMPONENT_NAME, toTSentryPrivilege(authorizable,
-                                                                                                   action));
+        for (Map.Entry<String, List<TSentryPrivilege>> entry : rolePrivileges.entrySet()) {
+          for (TSentryPrivilege privilege : entry.getValue()) {
+            client.grantPrivilege(requestingUser, entry.getKey(), COMPONENT_NAME, privilege);
+          }
         }
         return null;
       }
     });
+    refreshReplica(rolePrivileges.keySet());
   }
 
   /**
@@ -199,20 +594,36 @@ class AuthBinding {
    * @param requestingUser the user executing this operation
    * @throws Exception if there was any exception while running the client command for dropping privileges
    */
-  void revoke(final io.cdap.cdap.proto.security.Authorizable authorizable, final Role role, final Set<Action> actions,
-              final String requestingUser) throws Exception {
+  void revoke(io.cdap.cdap.proto.security.Authorizable authorizable, Role role, Set<Action> actions,
+              String requestingUser) throws Exception {
     LOG.debug("Revoking actions {} on entity {} from role {}; Requesting user: {}",
               actions, authorizable, role, requestingUser);
-    execute(new Command<Void>() {
+    revoke(toRolePrivileges(authorizable, role, actions), requestingUser);
+  }
+
+  /**
+   * Revokes the given {@link Privilege privileges} from their {@link Role roles}. Privileges for all four actions on
+   * an authorizable are revoked as a single privilege for all actions, all privileges are revoked over one client.
+   *
+   * @param privileges the privileges to revoke for every role
+   * @param requestingUser the user executing this operation
+   * @throws Exception if there was any exception while running the client command to revoke the privileges
+   */
+  void revoke(Multimap<Role, Privilege> privileges, final String requestingUser) throws Exception {
+    final Map<String, List<TSentryPrivilege>> rolePrivileges = toTSentryPrivileges(privileges);
+    LOG.debug("Revoking privileges {}; Requesting user: {}", rolePrivileges, requestingUser);
+    execute(SentryBindingMetrics.PRIVILEGE_REVOKE, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
-        for (final Action action : actions) {
-          client.revokePrivilege(requestingUser, role.getName(), COMPONENT_NAME,
-                                 toTSentryPrivilege(authorizable, action));
+        for (Map.Entry<String, List<TSentryPrivilege>> entry : rolePrivileges.entrySet()) {
+          for (TSentryPrivilege privilege : entry.getValue()) {
+            client.revokePrivilege(requestingUser, entry.getKey(), COMPONENT_NAME, privilege);
+          }
         }
         return null;
       }
     });
+    refreshReplica(rolePrivileges.keySet());
   }
 
   /**
@@ -238,22 +649,73 @@ class AuthBinding {
    */
   private void revoke(io.cdap.cdap.proto.security.Authorizable authorizable, final String requestingUser)
     throws Exception {
-    Set<Role> allRoles = listAllRoles();
-    final List<TSentryPrivilege> allPrivileges = getAllPrivileges(allRoles);
-    final List<TAuthorizable> tAuthorizables = toTAuthorizable(authorizable);
-    LOG.debug("Revoking all actions for all users from entity {}; Requesting user: {}", authorizable, requestingUser);
-    execute(new Command<Void>() {
+    List<TAuthorizable> tAuthorizables = toTAuthorizable(authorizable);
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = replica == null ?
+      findPrivilegesOn(tAuthorizables) : replica.getPrivilegesOn(tAuthorizables);
+
+    // dropping a privilege removes it from all roles, so every action has to be dropped only once
+    final Map<String, TSentryPrivilege> privileges = new HashMap<>();
+    for (Set<TSentryPrivilege> curPrivileges : rolePrivileges.values()) {
+      for (TSentryPrivilege privilege : curPrivileges) {
+        privileges.put(privilege.getAction().toLowerCase(), privilege);
+      }
+    }
+    LOG.debug("Revoking actions {} for roles {} from entity {}; Requesting user: {}",
+              privileges.keySet(), rolePrivileges.keySet(), authorizable, requestingUser);
+    if (privileges.isEmpty()) {
+      return;
+    }
+
+    execute(SentryBindingMetrics.PRIVILEGE_DROP, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
-        for (TSentryPrivilege curPrivileges : allPrivileges) {
-          if (tAuthorizables.equals(curPrivileges.getAuthorizables())) {
-            // if the privilege is on same authorizables then drop it
-            client.dropPrivilege(requestingUser, COMPONENT_NAME, curPrivileges);
-          }
+        for (TSentryPrivilege privilege : privileges.values()) {
+          client.dropPrivilege(requestingUser, COMPONENT_NAME, privilege);
         }
         return null;
       }
     });
+    refreshReplica(rolePrivileges.keySet());
+  }
+
+  /**
+   * Finds privileges on exactly the given authorizables by scanning privileges of all roles, used when there is no
+   * replica to look them up in. Privileges of every role are fetched over their own pooled client, bounded by the size
+   * of the fetch executor, and filtered as they arrive.
+   *
+   * @return names of roles to their privileges on the authorizables
+   */
+  private Map<String, Set<TSentryPrivilege>> findPrivilegesOn(List<TAuthorizable> tAuthorizables) throws Exception {
+    CompletionService<Set<TSentryPrivilege>> completionService = new ExecutorCompletionService<>(fetchExecutor);
+    Map<Future<Set<TSentryPrivilege>>, String> futures = new HashMap<>();
+    for (final String role : policySource.listRoleGroups().keySet()) {
+      futures.put(completionService.submit(new Callable<Set<TSentryPrivilege>>() {
+        @Override
+        public Set<TSentryPrivilege> call() throws Exception {
+          return policySource.listPrivileges(role);
+        }
+      }), role);
+    }
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = new HashMap<>();
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        Future<Set<TSentryPrivilege>> future = completionService.take();
+        Set<TSentryPrivilege> privileges = new HashSet<>();
+        for (TSentryPrivilege privilege : getFutureValue(future)) {
+          if (tAuthorizables.equals(privilege.getAuthorizables())) {
+            privileges.add(privilege);
+          }
+        }
+        if (!privileges.isEmpty()) {
+          rolePrivileges.put(futures.get(future), privileges);
+        }
+      }
+    } finally {
+      for (Future<Set<TSentryPrivilege>> future : futures.keySet()) {
+        future.cancel(true);
+      }
+    }
+    return rolePrivileges;
   }
 
   /**
@@ -266,38 +728,84 @@ class AuthBinding {
   Set<Privilege> listPrivileges(Principal principal) throws Exception {
     Set<Role> roles = getRoles(principal, sentryAdminGroup);
     LOG.debug("Listing all privileges for {};", principal);
-    List<TSentryPrivilege> allPrivileges = getAllPrivileges(roles);
-    return toPrivileges(allPrivileges);
+    if (roles.size() <= 1) {
+      List<TSentryPrivilege> allPrivileges = new ArrayList<>();
+      for (Role role : roles) {
+        allPrivileges.addAll(policySource.listPrivileges(role.getName()));
+      }
+      return toPrivileges(allPrivileges);
+    }
+
+    // fetch the privileges of every role over its own pooled client, bounded by the size of the fetch executor, and
+    // convert them as they arrive
+    CompletionService<Set<TSentryPrivilege>> completionService = new ExecutorCompletionService<>(fetchExecutor);
+    List<Future<Set<TSentryPrivilege>>> futures = new ArrayList<>(roles.size());
+    for (final Role role : roles) {
+      futures.add(completionService.submit(new Callable<Set<TSentryPrivilege>>() {
+        @Override
+        public Set<TSentryPrivilege> call() throws Exception {
+          return policySource.listPrivileges(role.getName());
+        }
+      }));
+    }
+    Set<Privilege> privileges = new HashSet<>();
+    try {
+      for (int i = 0; i < futures.size(); i++) {
+        for (TSentryPrivilege sentryPrivilege : getFutureValue(completionService.take())) {
+          addPrivileges(sentryPrivilege, privileges);
+        }
+      }
+    } finally {
+      for (Future<Set<TSentryPrivilege>> future : futures) {
+        future.cancel(true);
+      }
+    }
+    return Collections.unmodifiableSet(privileges);
   }
 
   @VisibleForTesting
   Set<Privilege> toPrivileges(Collection<TSentryPrivilege> allPrivileges) {
     Set<Privilege> privileges = new HashSet<>();
     for (TSentryPrivilege sentryPrivilege : allPrivileges) {
-      List<TAuthorizable> authorizables = sentryPrivilege.getAuthorizables();
-      if (authorizables.isEmpty()) {
-        continue;
-      }
-      EntityType entityType = null;
-      Map<EntityType, String> entityParts = new LinkedHashMap<>();
-      for (TAuthorizable authorizable : authorizables) {
-        // we only need to keep the final entity type since authorizable are ordered top down and the last entity
-        // type is the entity type of authorizable
-        entityType = addToEntityParts(authorizable, entityParts);
-      }
-      // for entity type other than instance we don't include instance in the Authorizable string as in cdap entities
-      // don't inherit instance.
-      Preconditions.checkNotNull(entityType, "Failed to determine entityType for the sentry authorizable %s",
-                                 authorizables);
-      if (!entityType.equals(EntityType.INSTANCE)) {
-        entityParts.remove(EntityType.INSTANCE);
-      }
-      privileges.add(new Privilege(new io.cdap.cdap.proto.security.Authorizable(entityType, entityParts, null),
-                                   Action.valueOf(sentryPrivilege.getAction().toUpperCase())));
+      addPrivileges(sentryPrivilege, privileges);
     }
     return Collections.unmodifiableSet(privileges);
   }
 
+  /**
+   * Adds the CDAP privileges of the given Sentry privilege, if any, to the given set
+   */
+  private void addPrivileges(TSentryPrivilege sentryPrivilege, Set<Privilege> privileges) {
+    List<TAuthorizable> authorizables = sentryPrivilege.getAuthorizables();
+    if (authorizables.isEmpty()) {
+      return;
+    }
+    EntityType entityType = null;
+    Map<EntityType, String> entityParts = new LinkedHashMap<>();
+    for (TAuthorizable authorizable : authorizables) {
+      // we only need to keep the final entity type since authorizable are ordered top down and the last entity
+      // type is the entity type of authorizable
+      entityType = addToEntityParts(authorizable, entityParts);
+    }
+    // for entity type other than instance we don't include instance in the Authorizable string as in cdap entities
+    // don't inherit instance.
+    Preconditions.checkNotNull(entityType, "Failed to determine entityType for the sentry authorizable %s",
+                               authorizables);
+    if (!entityType.equals(EntityType.INSTANCE)) {
+      entityParts.remove(EntityType.INSTANCE);
+    }
+    io.cdap.cdap.proto.security.Authorizable cdapAuthorizable =
+      new io.cdap.cdap.proto.security.Authorizable(entityType, entityParts, null);
+    // a privilege for all actions is granted for batches containing all of them, list them one by one again
+    if (ActionConstant.ALL.equalsIgnoreCase(sentryPrivilege.getAction())) {
+      for (Action action : ALL_ACTIONS) {
+        privileges.add(new Privilege(cdapAuthorizable, action));
+      }
+    } else {
+      privileges.add(new Privilege(cdapAuthorizable, Action.valueOf(sentryPrivilege.getAction().toUpperCase())));
+    }
+  }
+
   /**
    * Creates the specified role.
    *
@@ -306,7 +814,7 @@ class AuthBinding {
    * @throws Exception if there was any exception while running the client command for creating role for user
    */
   void createRole(final Role role, final String requestingUser) throws Exception {
-    execute(new Command<Void>() {
+    execute(SentryBindingMetrics.ROLE_CREATE, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
         client.createRole(requestingUser, role.getName(), COMPONENT_NAME);
@@ -314,6 +822,7 @@ class AuthBinding {
         return null;
       }
     });
+    refreshReplicaRoles();
   }
 
   /**
@@ -324,7 +833,7 @@ class AuthBinding {
    * @throws Exception if there was any exception while running the client command for dropping the role for user
    */
   void dropRole(final Role role, final String requestingUser) throws Exception {
-    execute(new Command<Void>() {
+    execute(SentryBindingMetrics.ROLE_DROP, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
         client.dropRole(requestingUser, role.getName(), COMPONENT_NAME);
@@ -332,6 +841,7 @@ class AuthBinding {
         return null;
       }
     });
+    refreshReplicaRoles();
   }
 
   /**
@@ -366,7 +876,7 @@ class AuthBinding {
    */
   void addRoleToGroup(final Role role, final Principal principal,
                       final String requestingUser) throws Exception {
-    execute(new Command<Void>() {
+    execute(SentryBindingMetrics.ROLE_GROUPS_ADD, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
         client.addRoleToGroups(requestingUser, role.getName(), COMPONENT_NAME,
@@ -375,6 +885,7 @@ class AuthBinding {
         return null;
       }
     });
+    refreshReplicaRoles();
   }
 
   /**
@@ -387,7 +898,7 @@ class AuthBinding {
    */
   void removeRoleFromGroup(final Role role, final Principal principal,
                            final String requestingUser) throws Exception {
-    execute(new Command<Void>() {
+    execute(SentryBindingMetrics.ROLE_GROUPS_DELETE, new Command<Void>() {
       @Override
       public Void run(SentryGenericServiceClient client) throws Exception {
         client.deleteRoleToGroups(requestingUser, role.getName(), COMPONENT_NAME,
@@ -396,6 +907,34 @@ class AuthBinding {
         return null;
       }
     });
+    refreshReplicaRoles();
+  }
+
+  /**
+   * Returns the Sentry authorizables of the given entity from a bounded cache. The returned list is immutable and
+   * shares the authorizables of its parents with the lists of other entities under the same parents.
+   *
+   * @param entityId the entity to get the authorizables for
+   * @return an immutable {@link List} of {@link Authorizable} which represents the given {@link EntityId}
+   */
+  List<Authorizable> getEntityAuthorizables(EntityId entityId) {
+    return entityAuthorizablesCache.getUnchecked(entityId);
+  }
+
+  private List<Authorizable> toAuthorizablePath(EntityId entityId) {
+    io.cdap.cdap.proto.security.Authorizable authorizable =
+      io.cdap.cdap.proto.security.Authorizable.fromEntityId(entityId);
+    List<Authorizable> authorizables = new ArrayList<>();
+    toSentryAuthorizables(authorizable.getEntityType(), authorizable, authorizables);
+
+    // intern every prefix, so that the instance, namespace and application objects are shared between entities
+    List<Authorizable> path = ImmutableList.of();
+    for (Authorizable element : authorizables) {
+      List<Authorizable> newPath = ImmutableList.<Authorizable>builder().addAll(path).add(element).build();
+      List<Authorizable> existingPath = authorizablePaths.asMap().putIfAbsent(newPath, newPath);
+      path = existingPath == null ? newPath : existingPath;
+    }
+    return path;
   }
 
   // just a helper for unit tests
@@ -419,7 +958,7 @@ class AuthBinding {
     return authorizables;
   }
 
-  private Set<Role> getRoles(@Nullable final Principal principal, final String requestingUser) throws Exception {
+  private Set<Role> getRoles(@Nullable Principal principal, String requestingUser) throws Exception {
     // if the specified principal is non-null and is a role, then we just return a singleton set containing that role
     if (principal != null && Principal.PrincipalType.ROLE == principal.getType()) {
       return Collections.singleton(new Role(principal.getName()));
@@ -427,15 +966,10 @@ class AuthBinding {
 
     Set<Role> roles;
     if (principal == null) {
+      // all roles are listed by the admin group, from the policy snapshot if offline
       roles = new HashSet<>();
-      Set<TSentryRole> tSentryRoles = execute(new Command<Set<TSentryRole>>() {
-        @Override
-        public Set<TSentryRole> run(SentryGenericServiceClient client) throws Exception {
-          return client.listAllRoles(requestingUser, COMPONENT_NAME);
-        }
-      });
-      for (TSentryRole tSentryRole : tSentryRoles) {
-        roles.add(new Role(tSentryRole.getRoleName()));
+      for (String role : policySource.listRoleGroups().keySet()) {
+        roles.add(new Role(role));
       }
       LOG.debug("Listed all roles {}; Requesting user: {}", roles, requestingUser);
     } else {
@@ -444,11 +978,11 @@ class AuthBinding {
         Set<String> groups = groupCache.get(principal);
         LOG.debug("Got groups {} for principal {}", groups, principal);
         roles = new HashSet<>();
-        for (String group : groups) {
-          roles.addAll(roleCache.get(group));
+        for (Set<Role> groupRoles : getGroupRoles(groups).values()) {
+          roles.addAll(groupRoles);
         }
       } else if (principal.getType().equals(Principal.PrincipalType.GROUP)) {
-        roles = roleCache.get(principal.getName());
+        roles = getGroupRoles(principal.getName());
       } else {
         throw new IllegalArgumentException(String.format("Cannot list roles for %s. Roles can only listed for %s or %s",
                                                          principal, Principal.PrincipalType.USER,
@@ -459,6 +993,342 @@ class AuthBinding {
     return Collections.unmodifiableSet(roles);
   }
 
+  private static int getCacheTtl(Properties properties, String name, int defaultTtlSecs) {
+    String ttlSecs = properties.getProperty(name);
+    return ttlSecs == null ? defaultTtlSecs : Integer.parseInt(ttlSecs);
+  }
+
+  /**
+   * Creates a cache builder for entries which are dropped once they are older than the expiry and reloaded in the
+   * background before, see {@link #getCacheRefresh(int, String)}. The listener is notified of every entry removed or
+   * replaced.
+   */
+  @VisibleForTesting
+  static <K, V> CacheBuilder<K, V> newCacheBuilder(int ttlSecs, @Nullable String expirySecs, int maxEntries,
+                                                         final CacheWeigher<K, V> weigher, long maxBytes,
+                                                         final RemovalListener<K, V> listener) {
+    int expiry = getCacheExpiry(ttlSecs, expirySecs);
+    int refresh = getCacheRefresh(ttlSecs, expirySecs);
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+      .expireAfterWrite(expiry, TimeUnit.SECONDS)
+      .recordStats();
+    if (refresh < expiry) {
+      builder.refreshAfterWrite(refresh, TimeUnit.SECONDS);
+    }
+    if (maxBytes > 0) {
+      return builder.maximumWeight(maxBytes).weigher(weigher).removalListener(new RemovalListener<K, V>() {
+        @Override
+        public void onRemoval(RemovalNotification<K, V> notification) {
+          weigher.onRemoval(notification);
+          listener.onRemoval(notification);
+        }
+      });
+    }
+    @SuppressWarnings("unchecked")
+    CacheBuilder<K, V> sizedBuilder = (CacheBuilder<K, V>) builder.maximumSize(maxEntries);
+    return sizedBuilder.removalListener(listener);
+  }
+
+  private static long getCacheMaxBytes(Properties properties, String name) {
+    String maxBytes = properties.getProperty(name);
+    return maxBytes == null ? 0 : Long.parseLong(maxBytes);
+  }
+
+  /**
+   * Creates a cache for values loaded last, which keeps them for the grace period past the expiry of the cache. It is
+   * bounded by the same memory budget as the cache, if there is one.
+   */
+  private static <K, V> Cache<K, V> newLastLoadedCache(int ttlSecs, @Nullable String expirySecs, int graceSecs,
+                                                       int maxEntries, CacheWeigher<K, V> weigher, long maxBytes) {
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+      .expireAfterWrite(getCacheExpiry(ttlSecs, expirySecs) + graceSecs, TimeUnit.SECONDS);
+    if (graceSecs > 0 && maxBytes > 0) {
+      return builder.maximumWeight(maxBytes).weigher(weigher).removalListener(weigher).build();
+    }
+    return builder.maximumSize(graceSecs > 0 ? maxEntries : 0).build();
+  }
+
+  private static int getCacheExpiry(int ttlSecs, @Nullable String expirySecs) {
+    return expirySecs == null ? ttlSecs : Math.max(ttlSecs, Integer.parseInt(expirySecs));
+  }
+
+  /**
+   * Returns the age after which cache entries are reloaded in the background. Without an explicit expiry, entries
+   * still expire after the TTL, so that a stale value is never served for longer than the TTL, and are reloaded after
+   * half of it. With an explicit expiry, entries are reloaded after the TTL. Returns the expiry if entries are not
+   * reloaded in the background.
+   */
+  private static int getCacheRefresh(int ttlSecs, @Nullable String expirySecs) {
+    int expiry = getCacheExpiry(ttlSecs, expirySecs);
+    int refresh = expirySecs == null ? ttlSecs / 2 : ttlSecs;
+    return refresh > 0 ? Math.min(refresh, expiry) : expiry;
+  }
+
+  /**
+   * Reloads a value in the background. If it did not change, the old value is kept, so that the policies compiled
+   * from it stay cached.
+   */
+  private <V> ListenableFuture<V> reloadAsync(final Callable<V> loader, final V oldValue) {
+    ListenableFutureTask<V> task = ListenableFutureTask.create(new Callable<V>() {
+      @Override
+      public V call() throws Exception {
+        V value = loader.call();
+        return value.equals(oldValue) ? oldValue : value;
+      }
+    });
+    reloadExecutor.execute(task);
+    return task;
+  }
+
+  private void onGroupsRemoved(RemovalNotification<Principal, Set<String>> notification) {
+    if (!isReloadedUnchanged(groupCache, notification)) {
+      policyIndexCache.invalidate(notification.getKey());
+    }
+  }
+
+  private void onRolesRemoved(RemovalNotification<String, Set<Role>> notification) {
+    if (!isReloadedUnchanged(roleCache, notification)) {
+      invalidatePolicyIndexes(groupPrincipals, notification.getKey());
+    }
+  }
+
+  private void onPoliciesRemoved(RemovalNotification<Role, Set<WildcardPolicy>> notification) {
+    if (!isReloadedUnchanged(policyCache, notification)) {
+      invalidatePolicyIndexes(rolePrincipals, notification.getKey());
+    }
+  }
+
+  /**
+   * Invalidates the compiled policies of the principals indexed under the key
+   */
+  private <K> void invalidatePolicyIndexes(Map<K, Set<Principal>> principalIndex, K key) {
+    List<Principal> principals;
+    synchronized (policyIndexLock) {
+      Set<Principal> indexed = principalIndex.get(key);
+      if (indexed == null) {
+        return;
+      }
+      principals = new ArrayList<>(indexed);
+    }
+    policyIndexCache.invalidateAll(principals);
+  }
+
+  /**
+   * Removes the principal of removed compiled policies from the reverse index, except under the groups and roles
+   * which the compiled policies cached for the principal now were read from as well
+   */
+  private void unindexPolicies(Principal principal, CompiledPolicies removed) {
+    synchronized (policyIndexLock) {
+      CompiledPolicies current = policyIndexCache.asMap().get(principal);
+      for (String group : removed.groupRoles.keySet()) {
+        if (current == null || !current.groupRoles.containsKey(group)) {
+          removePrincipal(groupPrincipals, group, principal);
+        }
+      }
+      for (Role role : removed.rolePolicies.keySet()) {
+        if (current == null || !current.rolePolicies.containsKey(role)) {
+          removePrincipal(rolePrincipals, role, principal);
+        }
+      }
+    }
+  }
+
+  private static <K> void addPrincipal(Map<K, Set<Principal>> principalIndex, K key, Principal principal) {
+    Set<Principal> principals = principalIndex.get(key);
+    if (principals == null) {
+      principals = new HashSet<>();
+      principalIndex.put(key, principals);
+    }
+    principals.add(principal);
+  }
+
+  private static <K> void removePrincipal(Map<K, Set<Principal>> principalIndex, K key, Principal principal) {
+    Set<Principal> principals = principalIndex.get(key);
+    if (principals != null && principals.remove(principal) && principals.isEmpty()) {
+      principalIndex.remove(key);
+    }
+  }
+
+  /**
+   * Checks whether the notification is about a value which was reloaded and kept because it did not change
+   */
+  private static <K, V> boolean isReloadedUnchanged(Cache<K, V> cache, RemovalNotification<K, V> notification) {
+    return notification.getCause() == RemovalCause.REPLACED &&
+      cache.asMap().get(notification.getKey()) == notification.getValue();
+  }
+
+  private Set<Role> getGroupRoles(String group) throws Exception {
+    return replica == null ? getStaleIfError(roleCache, lastLoadedRoles, group) : replica.getRoles(group);
+  }
+
+  /**
+   * Gets roles of all the given groups, loading the ones which are not cached yet with concurrent Sentry calls
+   */
+  private Map<String, Set<Role>> getGroupRoles(Collection<String> groups) throws Exception {
+    if (replica == null) {
+      try {
+        return roleCache.getAll(groups);
+      } catch (Exception e) {
+        if (!SentryClientPool.isTransportFailure(e)) {
+          throw e;
+        }
+        // fall back to the roles loaded before group by group
+      }
+    }
+    Map<String, Set<Role>> groupRoles = new HashMap<>();
+    for (String group : groups) {
+      groupRoles.put(group, getGroupRoles(group));
+    }
+    return groupRoles;
+  }
+
+  private Set<WildcardPolicy> getRolePolicies(Role role) throws Exception {
+    return replica == null ? getStaleIfError(policyCache, lastLoadedPolicies, role) : replica.getPolicies(role);
+  }
+
+  /**
+   * Gets the value from the cache. If it can not be loaded because Sentry is unreachable, falls back to the value
+   * loaded last, as long as it is within the grace period.
+   */
+  private static <K, V> V getStaleIfError(LoadingCache<K, V> cache, Cache<K, V> lastLoaded, K key) throws Exception {
+    try {
+      return cache.get(key);
+    } catch (Exception e) {
+      V value = lastLoaded.getIfPresent(key);
+      if (value == null || !SentryClientPool.isTransportFailure(e)) {
+        throw e;
+      }
+      LOG.debug("Failed to load {} from Sentry, using the value loaded before", key, e);
+      return value;
+    }
+  }
+
+  private Set<Role> loadRoles(String group) throws Exception {
+    // don't wait for Sentry on every request while it is unreachable
+    outageTracker.checkAvailable();
+    Set<Role> roles = fetchRoles(group);
+    lastLoadedRoles.put(group, roles);
+    return roles;
+  }
+
+  private Map<String, Set<Role>> loadRoles(Iterable<? extends String> groups) throws Exception {
+    outageTracker.checkAvailable();
+    Map<String, Future<Set<Role>>> futures = new LinkedHashMap<>();
+    for (final String group : groups) {
+      futures.put(group, fetchExecutor.submit(new Callable<Set<Role>>() {
+        @Override
+        public Set<Role> call() throws Exception {
+          return fetchRoles(group);
+        }
+      }));
+    }
+    Map<String, Set<Role>> roles = new HashMap<>();
+    try {
+      for (Map.Entry<String, Future<Set<Role>>> entry : futures.entrySet()) {
+        Set<Role> groupRoles = getFutureValue(entry.getValue());
+        lastLoadedRoles.put(entry.getKey(), groupRoles);
+        roles.put(entry.getKey(), groupRoles);
+      }
+    } finally {
+      for (Future<Set<Role>> future : futures.values()) {
+        future.cancel(true);
+      }
+    }
+    return roles;
+  }
+
+  /**
+   * Waits for the future, rethrowing the failure of the computation as is
+   */
+  static <T> T getFutureValue(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwables.propagateIfInstanceOf(e.getCause(), Exception.class);
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  private Set<WildcardPolicy> loadPolicies(Role role) throws Exception {
+    outageTracker.checkAvailable();
+    Set<WildcardPolicy> policies = fetchPolicies(role);
+    lastLoadedPolicies.put(role, policies);
+    return policies;
+  }
+
+  /**
+   * Applies changes of privileges of the given roles to the replica, if there is one
+   */
+  private void refreshReplica(Collection<String> roles) {
+    if (replica == null || roles.isEmpty()) {
+      return;
+    }
+    try {
+      replica.refreshRoles(roles);
+    } catch (Exception e) {
+      // the change was made in Sentry and will be picked up by the next resync of the replica
+      LOG.warn("Failed to refresh privileges of roles {} in Sentry policy replica", roles, e);
+    }
+  }
+
+  /**
+   * Applies changes of roles and their groups to the replica, if there is one
+   */
+  private void refreshReplicaRoles() {
+    if (replica == null) {
+      return;
+    }
+    try {
+      replica.refreshRoleGroups();
+    } catch (Exception e) {
+      // the change was made in Sentry and will be picked up by the next poll of the replica
+      LOG.warn("Failed to refresh roles in Sentry policy replica", e);
+    }
+  }
+
+  private CompiledPolicies compilePolicies(Principal principal) throws Exception {
+    long replicaVersion = replica == null ? 0L : replica.getVersion();
+    Set<String> groups = groupCache.get(principal);
+    Map<String, Set<Role>> groupRoles = getGroupRoles(groups);
+    Set<Role> roles = new LinkedHashSet<>();
+    for (Set<Role> roleSet : groupRoles.values()) {
+      roles.addAll(roleSet);
+    }
+    Map<Role, Set<WildcardPolicy>> rolePolicies = new LinkedHashMap<>();
+    List<WildcardPolicy> policies = new ArrayList<>();
+    for (Role role : roles) {
+      Set<WildcardPolicy> policySet = getRolePolicies(role);
+      rolePolicies.put(role, policySet);
+      policies.addAll(policySet);
+    }
+    return new CompiledPolicies(groups, groupRoles, rolePolicies, replicaVersion, PolicyIndex.compile(policies));
+  }
+
+  /**
+   * Checks that the entries the policies were compiled from are the ones cached. Cache values are never mutated, so
+   * comparing their identity is enough to find out whether any of them was replaced.
+   */
+  private boolean isCached(Principal principal, CompiledPolicies compiled) {
+    if (groupCache.asMap().get(principal) != compiled.groups) {
+      return false;
+    }
+    if (replica != null) {
+      // roles and policies are validated by the replica version
+      return true;
+    }
+    for (Map.Entry<String, Set<Role>> entry : compiled.groupRoles.entrySet()) {
+      if (roleCache.asMap().get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    for (Map.Entry<Role, Set<WildcardPolicy>> entry : compiled.rolePolicies.entrySet()) {
+      if (policyCache.asMap().get(entry.getKey()) != entry.getValue()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   private AuthConf initAuthzConf(String sentrySite) {
     if (Strings.isNullOrEmpty(sentrySite)) {
       throw new IllegalArgumentException(String.format("The value for %s is null or empty. Please configure it to " +
@@ -543,31 +1413,83 @@ class AuthBinding {
     }
   }
 
-  private List<TSentryPrivilege> getAllPrivileges(final Set<Role> roles) throws Exception {
-    return execute(new Command<List<TSentryPrivilege>>() {
-      @Override
-      public List<TSentryPrivilege> run(SentryGenericServiceClient client) throws Exception {
-        final List<TSentryPrivilege> tSentryPrivileges = new ArrayList<>();
-        for (Role role : roles) {
-          tSentryPrivileges.addAll(client.listPrivilegesByRoleName(sentryAdminGroup, role.getName(),
-                                                                   COMPONENT_NAME, instanceName));
-        }
-        return Collections.unmodifiableList(tSentryPrivileges);
+  /**
+   * Creates and initializes the group resolver configured by {@link AuthConf#GROUP_RESOLVER}
+   */
+  private GroupResolver createGroupResolver(Properties properties) {
+    String resolverName = properties.getProperty(AuthConf.GROUP_RESOLVER, AuthConf.GROUP_RESOLVER_DEFAULT).trim();
+    GroupResolver resolver;
+    try {
+      if (AuthConf.GROUP_RESOLVER_DEFAULT.equalsIgnoreCase(resolverName)) {
+        resolver = new MappingGroupResolver(authProvider.getGroupMapping());
+      } else if ("file".equalsIgnoreCase(resolverName)) {
+        resolver = new FileGroupResolver();
+      } else {
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+        resolver = classLoader.loadClass(resolverName).asSubclass(GroupResolver.class).newInstance();
       }
-    });
+      resolver.initialize(properties);
+    } catch (Exception e) {
+      throw Throwables.propagate(e);
+    }
+    LOG.debug("Resolving groups of users with {}", resolver.getClass().getName());
+    return resolver;
   }
 
   // just a helper for unit tests
   @VisibleForTesting
   TSentryPrivilege toTSentryPrivilege(EntityId entityId, Action action) {
-    return toTSentryPrivilege(io.cdap.cdap.proto.security.Authorizable.fromEntityId(entityId), action);
+    return toTSentryPrivilege(io.cdap.cdap.proto.security.Authorizable.fromEntityId(entityId), action.name());
   }
 
+  /**
+   * Groups the given privileges by role and authorizable, replacing all four actions on an authorizable with a
+   * single privilege for all actions.
+   *
+   * @return names of roles to the Sentry privileges to grant or revoke
+   */
   @VisibleForTesting
-  private TSentryPrivilege toTSentryPrivilege(io.cdap.cdap.proto.security.Authorizable authorizable, Action action) {
+  Map<String, List<TSentryPrivilege>> toTSentryPrivileges(Multimap<Role, Privilege> privileges) {
+    Map<String, List<TSentryPrivilege>> rolePrivileges = new LinkedHashMap<>();
+    for (Map.Entry<Role, Collection<Privilege>> entry : privileges.asMap().entrySet()) {
+      Map<io.cdap.cdap.proto.security.Authorizable, Set<Action>> authorizableActions = new LinkedHashMap<>();
+      for (Privilege privilege : entry.getValue()) {
+        Set<Action> actions = authorizableActions.get(privilege.getAuthorizable());
+        if (actions == null) {
+          actions = EnumSet.noneOf(Action.class);
+          authorizableActions.put(privilege.getAuthorizable(), actions);
+        }
+        actions.add(privilege.getAction());
+      }
+
+      List<TSentryPrivilege> sentryPrivileges = new ArrayList<>();
+      for (Map.Entry<io.cdap.cdap.proto.security.Authorizable, Set<Action>> actions : authorizableActions.entrySet()) {
+        if (actions.getValue().containsAll(ALL_ACTIONS)) {
+          sentryPrivileges.add(toTSentryPrivilege(actions.getKey(), ActionFactory.ActionType.ALL.name()));
+          continue;
+        }
+        for (Action action : actions.getValue()) {
+          sentryPrivileges.add(toTSentryPrivilege(actions.getKey(), action.name()));
+        }
+      }
+      rolePrivileges.put(entry.getKey().getName(), sentryPrivileges);
+    }
+    return rolePrivileges;
+  }
+
+  private static Multimap<Role, Privilege> toRolePrivileges(io.cdap.cdap.proto.security.Authorizable authorizable,
+                                                            Role role, Set<Action> actions) {
+    Multimap<Role, Privilege> privileges = LinkedHashMultimap.create();
+    for (Action action : actions) {
+      privileges.put(role, new Privilege(authorizable, action));
+    }
+    return privileges;
+  }
+
+  private TSentryPrivilege toTSentryPrivilege(io.cdap.cdap.proto.security.Authorizable authorizable, String action) {
     List<TAuthorizable> tAuthorizables = toTAuthorizable(authorizable);
     TSentryPrivilege tSentryPrivilege = new TSentryPrivilege(COMPONENT_NAME, instanceName,
-                                                             tAuthorizables, action.name());
+                                                             tAuthorizables, action);
     // CDAP-9029 Set grant options to true so that sentry will allow the privileges to be passed on to some other user
     // Setting it true for all privileges gives to a user is fine as we don't rely on this setting. While doing
     // grant CDAP enforces ADMIN on the entity.
@@ -584,27 +1506,80 @@ class AuthBinding {
     return tAuthorizables;
   }
 
-  private <T> T execute(Command<T> cmd) throws Exception {
+  /**
+   * Stops background cache reloads and replica polling, closes all pooled Sentry clients and unregisters the metrics
+   */
+  @Override
+  public void close() {
+    if (replica != null) {
+      replica.close();
+    }
+    reloadExecutor.shutdownNow();
+    fetchExecutor.shutdownNow();
+    outageTracker.close();
+    clientPool.close();
+    try {
+      groupResolver.close();
+    } catch (IOException e) {
+      LOG.warn("Failed to close group resolver", e);
+    }
+    metrics.unregister();
+  }
+
+  /**
+   * Runs the command over a pooled client, recording its latency and errors under the given name. A
+   * {@link ReadCommand} is retried once over a new client if the transport of the pooled client turns out to be broken.
+   *
+   * @param name name of the command, one of the constants of {@link SentryBindingMetrics}
+   */
+  private <T> T execute(String name, Command<T> cmd) throws Exception {
+    if (offlineSnapshotFile != null) {
+      // reads are answered from the snapshot, so only changes of roles and privileges get here
+      throw new BadRequestException(String.format(
+        "Roles and privileges can not be changed while policies are evaluated from the snapshot %s instead of Sentry",
+        offlineSnapshotFile));
+    }
+    CommandMetrics commandMetrics = metrics.get(name);
+    long startNanos = System.nanoTime();
     try {
-      SentryGenericServiceClient client = getClient();
+      SentryClientPool.PooledClient client = clientPool.borrow();
       try {
-        return cmd.run(client);
-      } finally {
-        client.close();
+        return run(cmd, client);
+      } catch (Exception e) {
+        // a write is not retried, since the response may have been lost after Sentry applied it, and applying it
+        // again would fail with an already exists error or grant twice
+        if (!(cmd instanceof ReadCommand) || !client.isReused() || !SentryClientPool.isTransportFailure(e)) {
+          throw e;
+        }
+        // the server or a firewall dropped the pooled connection, retry the read once over a new one
+        LOG.debug("Transport of pooled Sentry client is broken, retrying with a new client", e);
+        commandMetrics.incrementRetries();
+        return run(cmd, clientPool.borrowNew());
       }
     } catch (Exception e) {
+      outageTracker.failed(e);
+      commandMetrics.incrementErrors();
       // map sentry exceptions to appropriate cdap-security exceptions
       if (e instanceof SentryAccessDeniedException) {
+        commandMetrics.incrementUnauthorizedErrors();
         throw new UnauthorizedException(e.getMessage());
       } else if (e instanceof SentryNoSuchObjectException) {
+        commandMetrics.incrementNotFoundErrors();
         throw new NotFoundException(e.getMessage());
       } else if (e instanceof SentryAlreadyExistsException) {
+        commandMetrics.incrementAlreadyExistsErrors();
         throw new AlreadyExistsException(e.getMessage());
       } else if (e instanceof SentryInvalidInputException || e instanceof SentryThriftAPIMismatchException) {
+        commandMetrics.incrementBadRequestErrors();
         throw new BadRequestException(e.getMessage());
       } else {
+        if (SentryClientPool.isTransportFailure(e)) {
+          commandMetrics.incrementTransportErrors();
+        }
         throw e;
       }
+    } finally {
+      commandMetrics.recordLatency(startNanos);
     }
   }
 
@@ -616,9 +1591,31 @@ class AuthBinding {
     T run(SentryGenericServiceClient client) throws Exception;
   }
 
-  private SentryGenericServiceClient getClient() throws Exception {
-    // TODO: Cache the client
-    return SentryGenericServiceClientFactory.create(authConf);
+  /**
+   * A Command which only reads from Sentry, so it is safe to retry it after the transport of a pooled client failed
+   */
+  private interface ReadCommand<T> extends Command<T> {
+  }
+
+  /**
+   * Runs the command and hands the client back to the pool, closing it if its connection can not be reused
+   */
+  private <T> T run(Command<T> cmd, SentryClientPool.PooledClient client) throws Exception {
+    boolean reusable = false;
+    try {
+      T result = cmd.run(client.getClient());
+      reusable = true;
+      return result;
+    } catch (Exception e) {
+      reusable = !SentryClientPool.isConnectionFailure(e);
+      throw e;
+    } finally {
+      if (reusable) {
+        clientPool.release(client);
+      } else {
+        clientPool.invalidate(client);
+      }
+    }
   }
 
   private EntityType addToEntityParts(TAuthorizable tAuthorizable, Map<EntityType, String> entityParts) {
@@ -737,12 +1734,14 @@ class AuthBinding {
         break;
       case PROGRAM:
         toSentryAuthorizables(EntityType.APPLICATION, authorizable, sentryAuthorizables);
-        String[] programDetails = authorizable.getEntityParts().get(curType).split("\\.");
-        if (programDetails.length == 1) {
+        String programDetails = authorizable.getEntityParts().get(curType);
+        int separator = programDetails.indexOf('.');
+        if (separator < 0) {
           // We allow * when program type is not provided
-          sentryAuthorizables.add(new Program(programDetails[0]));
+          sentryAuthorizables.add(new Program(programDetails));
         } else {
-          sentryAuthorizables.add(new Program(ProgramType.valueOf(programDetails[0].toUpperCase()), programDetails[1]));
+          sentryAuthorizables.add(new Program(ProgramType.valueOf(programDetails.substring(0, separator).toUpperCase()),
+                                              programDetails.substring(separator + 1)));
         }
         break;
       case SECUREKEY:
@@ -760,12 +1759,21 @@ class AuthBinding {
     }
   }
 
-  Set<ActionFactory.Action> toSentryActions(Set<Action> actions) {
-    Set<ActionFactory.Action> sentryActions = new HashSet<>(actions.size());
+  /**
+   * Encodes the given actions as the bitwise or of their Sentry action codes, as used by {@link PolicyIndex}
+   *
+   * @throws IllegalArgumentException if there is no Sentry action for any of the actions
+   */
+  static int toActionMask(Set<Action> actions) {
+    int actionMask = 0;
     for (Action action : actions) {
-      sentryActions.add(new ActionFactory.Action(action.name()));
+      int code = ACTION_CODES[action.ordinal()];
+      if (code == 0) {
+        throw new IllegalArgumentException("Can't get CDAP action by name:" + action.name());
+      }
+      actionMask |= code;
     }
-    return Collections.unmodifiableSet(sentryActions);
+    return actionMask;
   }
 
   private static List<Authorizable> toSentryAuthorizables(List<TAuthorizable> tAuthorizables) {
@@ -776,12 +1784,21 @@ class AuthBinding {
     return authorizables;
   }
 
-  private Set<String> fetchGroups(Principal principal) {
-    return authProvider.getGroupMapping().getGroups(principal.getName());
+  private Set<String> fetchGroups(Principal principal) throws Exception {
+    CommandMetrics commandMetrics = metrics.get(SentryBindingMetrics.GROUP_MAPPING);
+    long startNanos = System.nanoTime();
+    try {
+      return groupResolver.getGroups(principal.getName());
+    } catch (Exception e) {
+      commandMetrics.incrementErrors();
+      throw e;
+    } finally {
+      commandMetrics.recordLatency(startNanos);
+    }
   }
 
   private Set<Role> fetchRoles(final String group) throws Exception {
-    Set<TSentryRole> tSentryRoles = execute(new Command<Set<TSentryRole>>() {
+    Set<TSentryRole> tSentryRoles = execute(SentryBindingMetrics.ROLE_FETCH, new ReadCommand<Set<TSentryRole>>() {
       @Override
       public Set<TSentryRole> run(SentryGenericServiceClient client) throws Exception {
         return client.listRolesByGroupName(sentryAdminGroup, group, COMPONENT_NAME);
@@ -795,25 +1812,107 @@ class AuthBinding {
   }
 
   private Set<WildcardPolicy> fetchPolicies(final Role role) throws Exception {
-    Set<TSentryPrivilege> sentryPrivileges = execute(new Command<Set<TSentryPrivilege>>() {
+    Set<TSentryPrivilege> sentryPrivileges = fetchPrivileges(role.getName());
+
+    if (sentryPrivileges == null) {
+      LOG.debug("Got empty set of policies for role {}", role);
+      return Collections.emptySet();
+    }
+
+    Set<WildcardPolicy> policies = toWildcardPolicies(sentryPrivileges);
+    LOG.debug("Got policies {} for role {}", policies, role);
+    return policies;
+  }
+
+  private Set<TSentryPrivilege> fetchPrivileges(final String role) throws Exception {
+    return execute(SentryBindingMetrics.PRIVILEGE_FETCH, new ReadCommand<Set<TSentryPrivilege>>() {
       @Override
       public Set<TSentryPrivilege> run(SentryGenericServiceClient client) throws Exception {
-        return client.listPrivilegesByRoleName(sentryAdminGroup, role.getName(), COMPONENT_NAME, instanceName);
+        return client.listPrivilegesByRoleName(sentryAdminGroup, role, COMPONENT_NAME, instanceName);
       }
     });
+  }
 
-    if (sentryPrivileges == null) {
-      LOG.debug("Got empty set of policies for role {}", role);
-      return Collections.emptySet();
+  /**
+   * @return names of all roles to names of groups each role is granted to
+   */
+  private Map<String, Set<String>> fetchRoleGroups() throws Exception {
+    Set<TSentryRole> tSentryRoles = execute(SentryBindingMetrics.ROLE_LIST, new ReadCommand<Set<TSentryRole>>() {
+      @Override
+      public Set<TSentryRole> run(SentryGenericServiceClient client) throws Exception {
+        return client.listAllRoles(sentryAdminGroup, COMPONENT_NAME);
+      }
+    });
+    Map<String, Set<String>> roleGroups = new HashMap<>();
+    for (TSentryRole tSentryRole : tSentryRoles) {
+      Set<String> groups = tSentryRole.getGroups();
+      roleGroups.put(tSentryRole.getRoleName(), groups == null ?
+        Collections.<String>emptySet() : ImmutableSet.copyOf(groups));
     }
+    return roleGroups;
+  }
 
+  /**
+   * Converts Sentry privileges to {@link WildcardPolicy policies}
+   */
+  static Set<WildcardPolicy> toWildcardPolicies(Collection<TSentryPrivilege> sentryPrivileges) {
     Set<WildcardPolicy> policies = new HashSet<>(sentryPrivileges.size());
     for (TSentryPrivilege sentryPrivilege : sentryPrivileges) {
-      policies.add(new WildcardPolicy(toSentryAuthorizables(sentryPrivilege.getAuthorizables()),
-                                      new ActionFactory.Action(sentryPrivilege.getAction())));
+      policies.add(toWildcardPolicy(sentryPrivilege));
     }
-
-    LOG.debug("Got policies {} for role {}", policies, role);
     return Collections.unmodifiableSet(policies);
   }
+
+  /**
+   * Converts the privilege to a {@link WildcardPolicy}, sharing one instance between all roles with the same
+   * privilege for as long as any of them still uses it.
+   */
+  private static WildcardPolicy toWildcardPolicy(final TSentryPrivilege sentryPrivilege) {
+    try {
+      return POLICIES.get(toPolicyKey(sentryPrivilege), new Callable<WildcardPolicy>() {
+        @Override
+        public WildcardPolicy call() {
+          return new WildcardPolicy(toSentryAuthorizables(sentryPrivilege.getAuthorizables()),
+                                    new ActionFactory.Action(sentryPrivilege.getAction()));
+        }
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * @return the privilege in the form type=name->...->action=action, with type and action in a single case
+   */
+  private static String toPolicyKey(TSentryPrivilege sentryPrivilege) {
+    StringBuilder key = new StringBuilder();
+    for (TAuthorizable authorizable : sentryPrivilege.getAuthorizables()) {
+      key.append(authorizable.getType().toUpperCase()).append('=').append(authorizable.getName()).append("->");
+    }
+    return key.append(ActionConstant.ACTION_NAME).append('=').append(sentryPrivilege.getAction().toLowerCase())
+      .toString();
+  }
+
+  /**
+   * A {@link PolicyIndex} of a principal together with the cache entries it was compiled from
+   */
+  private static final class CompiledPolicies {
+    private final Set<String> groups;
+    // roles of every group in groups
+    private final Map<String, Set<Role>> groupRoles;
+    // policies of every role of the groups
+    private final Map<Role, Set<WildcardPolicy>> rolePolicies;
+    // version of the replica the roles and policies were read from, if there is one
+    private final long replicaVersion;
+    private final PolicyIndex index;
+
+    private CompiledPolicies(Set<String> groups, Map<String, Set<Role>> groupRoles,
+                             Map<Role, Set<WildcardPolicy>> rolePolicies, long replicaVersion, PolicyIndex index) {
+      this.groups = groups;
+      this.groupRoles = groupRoles;
+      this.rolePolicies = rolePolicies;
+      this.replicaVersion = replicaVersion;
+      this.index = index;
+    }
+  }
 }
@@ -0,0 +1,136 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import io.cdap.cdap.proto.security.Principal;
+import io.cdap.cdap.proto.security.Role;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * {@link Weigher} estimating the heap used by a cache entry in bytes, so that caches can be bounded by memory
+ * instead of entry count. It is also registered as {@link RemovalListener} of the cache to keep track of the total
+ * weight of the cache, since Guava does not expose it.
+ * <p>
+ * The estimates assume a 64-bit JVM with compressed references and are meant for sizing, not accounting.
+ */
+abstract class CacheWeigher<K, V> implements Weigher<K, V>, RemovalListener<K, V> {
+  // object header with padding
+  private static final int OBJECT_BYTES = 16;
+  // node of a hash map or set, including the slot in the table
+  private static final int ENTRY_BYTES = 40;
+  // entry of a Guava cache with its write and access queue links
+  private static final int CACHE_ENTRY_BYTES = 64;
+
+  private final AtomicLong totalWeight = new AtomicLong();
+
+  @Override
+  public int weigh(K key, V value) {
+    int weight = estimate(key, value);
+    totalWeight.addAndGet(weight);
+    return weight;
+  }
+
+  @Override
+  public void onRemoval(RemovalNotification<K, V> notification) {
+    if (notification.getKey() != null && notification.getValue() != null) {
+      totalWeight.addAndGet(-estimate(notification.getKey(), notification.getValue()));
+    }
+  }
+
+  /**
+   * @return estimated bytes of all entries currently in the cache
+   */
+  long getTotalWeight() {
+    return totalWeight.get();
+  }
+
+  /**
+   * @return estimated bytes used by the given cache entry
+   */
+  abstract long estimateBytes(K key, V value);
+
+  private int estimate(K key, V value) {
+    return (int) Math.min(Integer.MAX_VALUE, CACHE_ENTRY_BYTES + estimateBytes(key, value));
+  }
+
+  /**
+   * @return weigher for principal to groups entries
+   */
+  static CacheWeigher<Principal, Set<String>> forGroups() {
+    return new CacheWeigher<Principal, Set<String>>() {
+      @Override
+      long estimateBytes(Principal principal, Set<String> groups) {
+        long bytes = OBJECT_BYTES + estimateBytes(principal.getName()) + OBJECT_BYTES;
+        for (String group : groups) {
+          bytes += ENTRY_BYTES + estimateBytes(group);
+        }
+        return bytes;
+      }
+    };
+  }
+
+  /**
+   * @return weigher for group to roles entries
+   */
+  static CacheWeigher<String, Set<Role>> forRoles() {
+    return new CacheWeigher<String, Set<Role>>() {
+      @Override
+      long estimateBytes(String group, Set<Role> roles) {
+        long bytes = estimateBytes(group) + OBJECT_BYTES;
+        for (Role role : roles) {
+          bytes += ENTRY_BYTES + OBJECT_BYTES + estimateBytes(role.getName());
+        }
+        return bytes;
+      }
+    };
+  }
+
+  /**
+   * @return weigher for role to policies entries
+   */
+  static CacheWeigher<Role, Set<WildcardPolicy>> forPolicies() {
+    return new CacheWeigher<Role, Set<WildcardPolicy>>() {
+      @Override
+      long estimateBytes(Role role, Set<WildcardPolicy> policies) {
+        long bytes = OBJECT_BYTES + estimateBytes(role.getName()) + OBJECT_BYTES;
+        for (WildcardPolicy policy : policies) {
+          // the policy with its action and list of authorizables
+          bytes += ENTRY_BYTES + 3 * OBJECT_BYTES + 4L * policy.getAuthorizables().size();
+          for (WildcardAuthorizable authorizable : policy.getAuthorizables()) {
+            // header with the five reference fields of the authorizable
+            bytes += OBJECT_BYTES + 20 + estimateBytes(authorizable.getName()) +
+              estimateBytes(authorizable.getSubType());
+          }
+        }
+        return bytes;
+      }
+    };
+  }
+
+  /**
+   * @return estimated bytes of a string with its character array
+   */
+  static long estimateBytes(@Nullable String string) {
+    return string == null ? 0 : 2 * OBJECT_BYTES + 8 + 2L * string.length();
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.base.Charsets;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * {@link SnapshotGroupResolver} reading the groups of users from the local file {@link AuthConf#GROUP_RESOLVER_FILE}.
+ * Every line of the file maps a user to a comma separated list of groups, like {@code user = group1, group2}. Blank
+ * lines and lines starting with {@code #} are skipped. The file is only read again once its modification time or size
+ * changes.
+ */
+public class FileGroupResolver extends SnapshotGroupResolver {
+  private static final Splitter GROUP_SPLITTER = Splitter.on(',').trimResults().omitEmptyStrings();
+
+  private File file;
+  private long lastModified;
+  private long lastLength;
+
+  @Override
+  public void initialize(Properties properties) throws Exception {
+    String path = properties.getProperty(AuthConf.GROUP_RESOLVER_FILE);
+    if (Strings.isNullOrEmpty(path)) {
+      throw new IllegalArgumentException(String.format("Property %s must be set to resolve groups from a file",
+                                                       AuthConf.GROUP_RESOLVER_FILE));
+    }
+    this.file = new File(path);
+    super.initialize(properties);
+  }
+
+  @Nullable
+  @Override
+  protected Map<String, Set<String>> loadGroups() throws IOException {
+    long modified = file.lastModified();
+    if (modified == 0) {
+      throw new FileNotFoundException(String.format("Group file %s does not exist", file));
+    }
+    long length = file.length();
+    if (modified == lastModified && length == lastLength) {
+      return null;
+    }
+
+    Map<String, Set<String>> groups = new HashMap<>();
+    int lineNumber = 0;
+    for (String line : Files.readLines(file, Charsets.UTF_8)) {
+      lineNumber++;
+      line = line.trim();
+      if (line.isEmpty() || line.startsWith("#")) {
+        continue;
+      }
+      int separator = line.indexOf('=');
+      String user = separator < 0 ? "" : line.substring(0, separator).trim();
+      if (user.isEmpty()) {
+        throw new IOException(String.format("Invalid line %d of group file %s, expected 'user = group1, group2'",
+                                            lineNumber, file));
+      }
+      Set<String> userGroups = groups.get(user);
+      if (userGroups == null) {
+        userGroups = new HashSet<>();
+        groups.put(user, userGroups);
+      }
+      for (String group : GROUP_SPLITTER.split(line.substring(separator + 1))) {
+        userGroups.add(group);
+      }
+    }
+    lastModified = modified;
+    lastLength = length;
+    return groups;
+  }
+}
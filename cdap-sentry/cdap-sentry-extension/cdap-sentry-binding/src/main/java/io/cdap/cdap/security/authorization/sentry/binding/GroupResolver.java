@@ -0,0 +1,45 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+
+import java.io.Closeable;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Resolves the groups of a user for Sentry authorization. A resolver is selected with
+ * {@link AuthConf#GROUP_RESOLVER}; custom implementations are given by class name and need a public constructor
+ * without arguments. Resolution is called on the request path whenever the groups of a user are not cached, so
+ * implementations should answer from memory and not fork processes or call remote services per lookup.
+ */
+public interface GroupResolver extends Closeable {
+
+  /**
+   * Called once before the first lookup.
+   *
+   * @param properties extension properties from cdap-site.xml
+   */
+  void initialize(Properties properties) throws Exception;
+
+  /**
+   * @param user the name of the user
+   * @return the groups of the user, empty if the user is unknown
+   */
+  Set<String> getGroups(String user) throws Exception;
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import org.apache.sentry.provider.common.GroupMappingService;
+
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * {@link GroupResolver} using the group mapping of the Sentry authorization provider, which by default resolves
+ * groups through Hadoop and may run a shell command per lookup.
+ */
+class MappingGroupResolver implements GroupResolver {
+
+  private final GroupMappingService groupMapping;
+
+  MappingGroupResolver(GroupMappingService groupMapping) {
+    this.groupMapping = groupMapping;
+  }
+
+  @Override
+  public void initialize(Properties properties) {
+    // configured through the authorization provider
+  }
+
+  @Override
+  public Set<String> getGroups(String user) {
+    return groupMapping.getGroups(user);
+  }
+
+  @Override
+  public void close() {
+    // nothing to close
+  }
+}
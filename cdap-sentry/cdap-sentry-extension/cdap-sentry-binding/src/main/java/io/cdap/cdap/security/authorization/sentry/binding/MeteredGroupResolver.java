@@ -0,0 +1,88 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link GroupResolver} counting lookups, failures and the time spent in the wrapped resolver
+ */
+class MeteredGroupResolver implements GroupResolver {
+
+  private final GroupResolver delegate;
+  private final AtomicLong lookups = new AtomicLong();
+  private final AtomicLong failures = new AtomicLong();
+  private final AtomicLong totalNanos = new AtomicLong();
+  private final AtomicLong maxNanos = new AtomicLong();
+
+  MeteredGroupResolver(GroupResolver delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public void initialize(Properties properties) throws Exception {
+    delegate.initialize(properties);
+  }
+
+  @Override
+  public Set<String> getGroups(String user) throws Exception {
+    long startNanos = System.nanoTime();
+    try {
+      return delegate.getGroups(user);
+    } catch (Exception e) {
+      failures.incrementAndGet();
+      throw e;
+    } finally {
+      long nanos = System.nanoTime() - startNanos;
+      lookups.incrementAndGet();
+      totalNanos.addAndGet(nanos);
+      long max = maxNanos.get();
+      while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+        max = maxNanos.get();
+      }
+    }
+  }
+
+  /**
+   * @return lookup counts and latencies in microseconds, and the size of the snapshot for snapshot resolvers
+   */
+  Map<String, Long> getMetrics() {
+    Map<String, Long> metrics = new LinkedHashMap<>();
+    metrics.put("lookups", lookups.get());
+    metrics.put("failures", failures.get());
+    metrics.put("totalMicros", TimeUnit.NANOSECONDS.toMicros(totalNanos.get()));
+    metrics.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+    if (delegate instanceof SnapshotGroupResolver) {
+      SnapshotGroupResolver snapshotResolver = (SnapshotGroupResolver) delegate;
+      metrics.put("users", (long) snapshotResolver.getUserCount());
+      metrics.put("refreshFailures", snapshotResolver.getRefreshFailures());
+      metrics.put("lastRefreshMillis", snapshotResolver.getLastRefreshMillis());
+    }
+    return metrics;
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable.AuthorizableType;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.annotation.Nullable;
+
+/**
+ * A set of {@link WildcardPolicy policies} compiled into a trie. Every level of the trie corresponds to one
+ * authorizable of the policies, so checking an entity only walks the branches matching the authorizables of the
+ * entity instead of matching the entity against every policy. Authorizables without wildcards are looked up by
+ * type and name, the ones with wildcards are kept in a separate branch list of every node and matched one by one.
+ * Every node holds the bitmask of actions granted by the policies ending at this node.
+ * <p>
+ * The index is immutable once compiled and may be shared between threads.
+ */
+final class PolicyIndex {
+
+  private final Node root;
+  private final Node[] rootFrontier;
+  private final int size;
+
+  private PolicyIndex(Node root, int size) {
+    this.root = root;
+    this.rootFrontier = new Node[] { root };
+    this.size = size;
+  }
+
+  /**
+   * Compiles the given policies. Policies without authorizables never allow anything and are skipped.
+   */
+  static PolicyIndex compile(Collection<WildcardPolicy> policies) {
+    Node root = new Node(null);
+    int size = 0;
+    for (WildcardPolicy policy : policies) {
+      List<WildcardAuthorizable> authorizables = policy.getAuthorizables();
+      if (authorizables.isEmpty()) {
+        continue;
+      }
+      Node node = root;
+      for (WildcardAuthorizable authorizable : authorizables) {
+        node = node.getOrAddChild(authorizable);
+      }
+      node.actionMask |= policy.getAllowedAction().getActionCode();
+      size++;
+    }
+    root.freeze();
+    return new PolicyIndex(root, size);
+  }
+
+  /**
+   * @return true if there are no policies which could allow any action
+   */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Checks whether every action in the given mask is allowed on the entity by at least one policy
+   *
+   * @param entityAuthorizables the entity, no wildcards allowed here
+   * @param actionMask the bitwise or of codes of the actions to check
+   * @return true if all actions are allowed, false otherwise
+   */
+  boolean isAllowed(List<? extends Authorizable> entityAuthorizables, int actionMask) {
+    if (entityAuthorizables.isEmpty()) {
+      return false;
+    }
+    return (collectActions(root, entityAuthorizables, 0, actionMask, 0) & actionMask) == actionMask;
+  }
+
+  /**
+   * Creates a check of visibility for a batch of entities. An entity is visible if any policy allows any action on
+   * either the entity or its descendants. The check remembers the nodes reached by every parent of the checked
+   * entities, so entities under the same parents only match their own last authorizable. The check is thread safe and
+   * should not outlive the batch, since it keeps the nodes of all parents seen.
+   */
+  VisibilityCheck newVisibilityCheck() {
+    return new VisibilityCheck();
+  }
+
+  /**
+   * Collects actions granted on the entity by policies reachable from the given node. Stops as soon as all
+   * requested actions are granted.
+   */
+  private static int collectActions(Node node, List<? extends Authorizable> entityAuthorizables, int depth,
+                                    int requested, int granted) {
+    if (depth == entityAuthorizables.size()) {
+      return granted | node.actionMask;
+    }
+    Authorizable authorizable = entityAuthorizables.get(depth);
+    if (authorizable == null || authorizable.getName() == null) {
+      return granted;
+    }
+
+    Node literal = node.getLiteralChild(authorizable);
+    if (literal != null) {
+      granted = collectActions(literal, entityAuthorizables, depth + 1, requested, granted);
+      if ((granted & requested) == requested) {
+        return granted;
+      }
+    }
+    for (int i = 0; i < node.wildcards.length; i++) {
+      if (node.wildcards[i].matches(authorizable)) {
+        granted = collectActions(node.wildcardChildren[i], entityAuthorizables, depth + 1, requested, granted);
+        if ((granted & requested) == requested) {
+          return granted;
+        }
+      }
+    }
+    return granted;
+  }
+
+  /**
+   * @return the nodes reached from the given nodes by matching the given authorizable
+   */
+  private static Node[] advance(Node[] frontier, @Nullable Authorizable authorizable) {
+    if (frontier.length == 0 || authorizable == null || authorizable.getName() == null) {
+      return Node.NO_NODES;
+    }
+    List<Node> next = new ArrayList<>();
+    for (Node node : frontier) {
+      Node literal = node.getLiteralChild(authorizable);
+      if (literal != null) {
+        next.add(literal);
+      }
+      for (int i = 0; i < node.wildcards.length; i++) {
+        if (node.wildcards[i].matches(authorizable)) {
+          next.add(node.wildcardChildren[i]);
+        }
+      }
+    }
+    return next.toArray(new Node[next.size()]);
+  }
+
+  private static boolean hasChild(Node node, @Nullable Authorizable authorizable) {
+    if (authorizable == null || authorizable.getName() == null) {
+      return false;
+    }
+    if (node.getLiteralChild(authorizable) != null) {
+      return true;
+    }
+    for (WildcardAuthorizable wildcard : node.wildcards) {
+      if (wildcard.matches(authorizable)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "PolicyIndex{" +
+      "size=" + size +
+      '}';
+  }
+
+  /**
+   * Visibility check for a batch of entities, see {@link #newVisibilityCheck()}
+   */
+  final class VisibilityCheck {
+    // nodes reached by matching the authorizables of parents of the checked entities
+    private final ConcurrentMap<List<? extends Authorizable>, Node[]> parentFrontiers = new ConcurrentHashMap<>();
+
+    private VisibilityCheck() {
+    }
+
+    /**
+     * Matches the parent authorizables of a group of sibling entities once, so that every sibling only matches its
+     * own last authorizable
+     */
+    ParentMatch matchParent(List<? extends Authorizable> parentAuthorizables) {
+      return new ParentMatch(getFrontier(parentAuthorizables));
+    }
+
+    private Node[] getFrontier(List<? extends Authorizable> parentAuthorizables) {
+      int size = parentAuthorizables.size();
+      if (size == 0) {
+        return rootFrontier;
+      }
+      Node[] frontier = parentFrontiers.get(parentAuthorizables);
+      if (frontier == null) {
+        frontier = advance(getFrontier(parentAuthorizables.subList(0, size - 1)), parentAuthorizables.get(size - 1));
+        parentFrontiers.putIfAbsent(parentAuthorizables, frontier);
+      }
+      return frontier;
+    }
+  }
+
+  /**
+   * Nodes reached by the parent of sibling entities, see {@link VisibilityCheck#matchParent(List)}
+   */
+  static final class ParentMatch {
+    private final Node[] frontier;
+
+    private ParentMatch(Node[] frontier) {
+      this.frontier = frontier;
+    }
+
+    /**
+     * Checks whether the entity with the matched parent and the given last authorizable is visible. Nodes only exist
+     * on the paths of policies, so reaching any node at the depth of the entity is enough.
+     */
+    boolean isVisible(Authorizable authorizable) {
+      for (Node node : frontier) {
+        if (hasChild(node, authorizable)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /**
+   * A node of the trie, reached by matching one authorizable on every level
+   */
+  private static final class Node {
+    private static final WildcardAuthorizable[] NO_WILDCARDS = new WildcardAuthorizable[0];
+    private static final Node[] NO_NODES = new Node[0];
+
+    // sub type the entity must have to reach this node through the literal branch of the parent, if any
+    @Nullable
+    private final String subType;
+    private final Map<AuthorizableType, Map<String, Node>> literalChildren = new EnumMap<>(AuthorizableType.class);
+    // wildcard branches collected while compiling, turned into the arrays below by freeze()
+    private Map<WildcardAuthorizable, Node> pendingWildcards = new LinkedHashMap<>();
+    // parallel arrays instead of a list of pairs, since they are only scanned while checking
+    private WildcardAuthorizable[] wildcards = NO_WILDCARDS;
+    private Node[] wildcardChildren = NO_NODES;
+    private int actionMask;
+
+    private Node(@Nullable String subType) {
+      this.subType = subType;
+    }
+
+    @Nullable
+    Node getLiteralChild(Authorizable authorizable) {
+      Map<String, Node> children = literalChildren.get(authorizable.getAuthzType());
+      if (children == null) {
+        return null;
+      }
+      Node child = children.get(authorizable.getName());
+      if (child == null || (child.subType != null && !child.subType.equalsIgnoreCase(authorizable.getSubType()))) {
+        return null;
+      }
+      return child;
+    }
+
+    Node getOrAddChild(WildcardAuthorizable authorizable) {
+      AuthorizableType type = authorizable.getAuthzType();
+      if (authorizable.isLiteral()) {
+        Map<String, Node> children = literalChildren.get(type);
+        if (children == null) {
+          children = new HashMap<>();
+          literalChildren.put(type, children);
+        }
+        Node child = children.get(authorizable.getName());
+        if (child == null) {
+          child = new Node(authorizable.getSubType());
+          children.put(authorizable.getName(), child);
+          return child;
+        }
+        if (equalsIgnoreCase(child.subType, authorizable.getSubType())) {
+          return child;
+        }
+        // same name with another sub type can not share the literal branch, fall back to generic matching
+      }
+      return getOrAddWildcardChild(authorizable);
+    }
+
+    private Node getOrAddWildcardChild(WildcardAuthorizable authorizable) {
+      Node child = pendingWildcards.get(authorizable);
+      if (child == null) {
+        child = new Node(null);
+        pendingWildcards.put(authorizable, child);
+      }
+      return child;
+    }
+
+    private void freeze() {
+      if (!pendingWildcards.isEmpty()) {
+        wildcards = pendingWildcards.keySet().toArray(new WildcardAuthorizable[pendingWildcards.size()]);
+        wildcardChildren = pendingWildcards.values().toArray(new Node[pendingWildcards.size()]);
+      }
+      pendingWildcards = null;
+      for (Node child : wildcardChildren) {
+        child.freeze();
+      }
+      for (Map<String, Node> children : literalChildren.values()) {
+        for (Node child : children.values()) {
+          child.freeze();
+        }
+      }
+    }
+
+    private static boolean equalsIgnoreCase(@Nullable String first, @Nullable String second) {
+      return first == null ? second == null : first.equalsIgnoreCase(second);
+    }
+  }
+}
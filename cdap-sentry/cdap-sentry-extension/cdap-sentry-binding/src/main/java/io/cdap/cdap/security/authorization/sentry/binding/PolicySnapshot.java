@@ -0,0 +1,215 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * All roles of the cdap component in Sentry with their groups and privileges, stored in a compact binary file so that
+ * the authorizer can run without Sentry, see {@link AuthConf#POLICY_SNAPSHOT_FILE}. The snapshot is the
+ * {@link SentryPolicyReplica.Source} of a replica which never polls.
+ * <p>
+ * Every string is stored once in a string table and referenced by index, since group names, authorizable types and
+ * names and actions repeat across roles and privileges. The file is read at once and decoded into heap objects, which
+ * the replica evaluates.
+ */
+final class PolicySnapshot implements SentryPolicyReplica.Source {
+  // "CDPS", CDAP policy snapshot
+  private static final int MAGIC = 0x43445053;
+  private static final int VERSION = 1;
+
+  private final Map<String, Set<String>> roleGroups;
+  private final Map<String, Set<TSentryPrivilege>> rolePrivileges;
+
+  private PolicySnapshot(Map<String, Set<String>> roleGroups, Map<String, Set<TSentryPrivilege>> rolePrivileges) {
+    this.roleGroups = roleGroups;
+    this.rolePrivileges = rolePrivileges;
+  }
+
+  @Override
+  public Map<String, Set<String>> listRoleGroups() {
+    return roleGroups;
+  }
+
+  @Override
+  public Set<TSentryPrivilege> listPrivileges(String role) {
+    Set<TSentryPrivilege> privileges = rolePrivileges.get(role);
+    return privileges == null ? Collections.<TSentryPrivilege>emptySet() : privileges;
+  }
+
+  /**
+   * Writes a snapshot file. The file is written next to the target and then moved over it, so readers never see a
+   * partially written snapshot.
+   *
+   * @param file the file to write
+   * @param roleGroups names of all roles to names of groups each role is granted to
+   * @param rolePrivileges names of roles to their privileges, roles without privileges may be missing
+   */
+  static void write(File file, Map<String, Set<String>> roleGroups,
+                    Map<String, Set<TSentryPrivilege>> rolePrivileges) throws IOException {
+    StringTable strings = new StringTable();
+    List<int[]> roles = new ArrayList<>(roleGroups.size());
+    for (Map.Entry<String, Set<String>> entry : roleGroups.entrySet()) {
+      Set<TSentryPrivilege> privileges = rolePrivileges.get(entry.getKey());
+      if (privileges == null) {
+        privileges = Collections.emptySet();
+      }
+      // role, groups and privileges as a flat list of string indexes and counts
+      List<Integer> role = new ArrayList<>();
+      role.add(strings.indexOf(entry.getKey()));
+      role.add(entry.getValue().size());
+      for (String group : entry.getValue()) {
+        role.add(strings.indexOf(group));
+      }
+      role.add(privileges.size());
+      for (TSentryPrivilege privilege : privileges) {
+        role.add(strings.indexOf(privilege.getComponent()));
+        role.add(strings.indexOf(privilege.getServiceName()));
+        role.add(strings.indexOf(privilege.getAction()));
+        role.add(privilege.getAuthorizablesSize());
+        for (TAuthorizable authorizable : privilege.getAuthorizables()) {
+          role.add(strings.indexOf(authorizable.getType()));
+          role.add(strings.indexOf(authorizable.getName()));
+        }
+      }
+      int[] values = new int[role.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = role.get(i);
+      }
+      roles.add(values);
+    }
+
+    File tmpFile = new File(file.getAbsoluteFile().getParentFile(), "." + file.getName() + ".tmp");
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeInt(strings.strings.size());
+      for (String string : strings.strings) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(roles.size());
+      for (int[] role : roles) {
+        for (int value : role) {
+          out.writeInt(value);
+        }
+      }
+    }
+    Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Reads a snapshot file written by {@link #write(File, Map, Map)}
+   *
+   * @throws IOException if the file can't be read or is not a valid snapshot
+   */
+  static PolicySnapshot read(File file) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    try {
+      if (buffer.getInt() != MAGIC) {
+        throw new IOException(String.format("File %s is not a policy snapshot", file));
+      }
+      int version = buffer.getInt();
+      if (version != VERSION) {
+        throw new IOException(String.format("Unsupported version %d of policy snapshot %s", version, file));
+      }
+      String[] strings = new String[buffer.getInt()];
+      for (int i = 0; i < strings.length; i++) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        strings[i] = new String(bytes, StandardCharsets.UTF_8);
+      }
+
+      int roleCount = buffer.getInt();
+      Map<String, Set<String>> roleGroups = new LinkedHashMap<>(roleCount);
+      Map<String, Set<TSentryPrivilege>> rolePrivileges = new HashMap<>(roleCount);
+      for (int i = 0; i < roleCount; i++) {
+        String role = readString(buffer, strings);
+        ImmutableSet.Builder<String> groups = ImmutableSet.builder();
+        for (int groupCount = buffer.getInt(); groupCount > 0; groupCount--) {
+          groups.add(readString(buffer, strings));
+        }
+        roleGroups.put(role, groups.build());
+
+        ImmutableSet.Builder<TSentryPrivilege> privileges = ImmutableSet.builder();
+        for (int privilegeCount = buffer.getInt(); privilegeCount > 0; privilegeCount--) {
+          String component = readString(buffer, strings);
+          String serviceName = readString(buffer, strings);
+          String action = readString(buffer, strings);
+          int authorizableCount = buffer.getInt();
+          List<TAuthorizable> authorizables = new ArrayList<>(authorizableCount);
+          for (int j = 0; j < authorizableCount; j++) {
+            authorizables.add(new TAuthorizable(readString(buffer, strings), readString(buffer, strings)));
+          }
+          privileges.add(new TSentryPrivilege(component, serviceName, authorizables, action));
+        }
+        rolePrivileges.put(role, privileges.build());
+      }
+      if (buffer.hasRemaining()) {
+        throw new IOException(String.format("Unexpected data at offset %d of policy snapshot %s",
+                                            buffer.position(), file));
+      }
+      return new PolicySnapshot(Collections.unmodifiableMap(roleGroups), rolePrivileges);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+      throw new IOException(String.format("Policy snapshot %s is truncated or corrupt", file), e);
+    }
+  }
+
+  private static String readString(ByteBuffer buffer, String[] strings) {
+    return strings[buffer.getInt()];
+  }
+
+  /**
+   * Assigns indexes to distinct strings in the order they are first seen
+   */
+  private static final class StringTable {
+    private final List<String> strings = new ArrayList<>();
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    int indexOf(String string) {
+      Integer index = indexes.get(string);
+      if (index == null) {
+        index = strings.size();
+        strings.add(string);
+        indexes.put(string, index);
+      }
+      return index;
+    }
+  }
+}
@@ -18,13 +18,13 @@ package io.cdap.cdap.security.authorization.sentry.binding;
 
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
+import com.google.common.collect.Multimap;
 import io.cdap.cdap.proto.id.EntityId;
 import io.cdap.cdap.proto.security.Action;
 import io.cdap.cdap.proto.security.Principal;
 import io.cdap.cdap.proto.security.Privilege;
 import io.cdap.cdap.proto.security.Role;
 import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
-import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
 import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
 import io.cdap.cdap.security.spi.authorization.AbstractAuthorizer;
 import io.cdap.cdap.security.spi.authorization.AuthorizationContext;
@@ -33,10 +33,10 @@ import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.io.File;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -49,6 +49,7 @@ public class SentryAuthorizer extends AbstractAuthorizer {
   private static final Logger LOG = LoggerFactory.getLogger(SentryAuthorizer.class);
 
   private AuthBinding binding;
+  private VisibilityResolver visibilityResolver;
   private AuthorizationContext context;
 
   @Override
@@ -75,10 +76,27 @@ public class SentryAuthorizer extends AbstractAuthorizer {
 
     LOG.info("Configuring SentryAuthorizer with sentry-site.xml at {}, CDAP instance {} and Sentry Admin Group: {}",
              sentrySiteUrl, instanceName, sentryAdminGroup);
-    this.binding = new AuthBinding(sentrySiteUrl, instanceName, sentryAdminGroup, cacheTtlSecs, cacheMaxEntries);
+    this.binding = new AuthBinding(sentrySiteUrl, instanceName, sentryAdminGroup, cacheTtlSecs, cacheMaxEntries,
+                                   properties);
+
+    int visibilityParallelism = Integer.parseInt(properties.getProperty(
+      AuthConf.VISIBILITY_PARALLELISM, String.valueOf(Runtime.getRuntime().availableProcessors())));
+    int visibilityParallelThreshold = Integer.parseInt(properties.getProperty(
+      AuthConf.VISIBILITY_PARALLEL_THRESHOLD, AuthConf.VISIBILITY_PARALLEL_THRESHOLD_DEFAULT));
+    this.visibilityResolver = new VisibilityResolver(binding, visibilityParallelism, visibilityParallelThreshold);
     this.context = context;
   }
 
+  @Override
+  public void destroy() throws Exception {
+    if (visibilityResolver != null) {
+      visibilityResolver.close();
+    }
+    if (binding != null) {
+      binding.close();
+    }
+  }
+
   @Override
   public void grant(io.cdap.cdap.proto.security.Authorizable authorizable, Principal principal, Set<Action> actions)
     throws Exception {
@@ -108,6 +126,31 @@ public class SentryAuthorizer extends AbstractAuthorizer {
     }
   }
 
+  /**
+   * Grants many {@link Privilege privileges} to their {@link Role roles} at once, e.g. all privileges on the entities
+   * of a deployed pipeline. Privileges for all actions on an entity are granted as one Sentry privilege.
+   *
+   * @param privileges the privileges to grant for every role
+   * @throws Exception if the privileges could not be granted
+   */
+  public void grant(Multimap<Role, Privilege> privileges) throws Exception {
+    LOG.trace("Granting {}", privileges);
+    binding.grant(privileges, getRequestingUser());
+    LOG.trace("Granted {}", privileges);
+  }
+
+  /**
+   * Revokes many {@link Privilege privileges} from their {@link Role roles} at once.
+   *
+   * @param privileges the privileges to revoke for every role
+   * @throws Exception if the privileges could not be revoked
+   */
+  public void revoke(Multimap<Role, Privilege> privileges) throws Exception {
+    LOG.trace("Revoking {}", privileges);
+    binding.revoke(privileges, getRequestingUser());
+    LOG.trace("Revoked {}", privileges);
+  }
+
   @Override
   public void revoke(io.cdap.cdap.proto.security.Authorizable authorizable) throws Exception {
     LOG.debug("Revoking all privileges on {}", authorizable);
@@ -158,32 +201,17 @@ public class SentryAuthorizer extends AbstractAuthorizer {
   public void enforce(EntityId entityId, Principal principal, Set<Action> actions) throws Exception {
     checkUserPrincipal(principal);
 
-    Set<WildcardPolicy> policies = binding.getPolicies(principal);
+    PolicyIndex policies = binding.getPolicyIndex(principal);
     LOG.debug("Got policies {} for principal {}, entity {} and actions {}", policies, principal, entityId, actions);
     if (policies.isEmpty()) {
       throw new UnauthorizedException(principal, actions, entityId, true);
     }
 
-    List<Authorizable> sentryAuthorizables = new ArrayList<>();
-    io.cdap.cdap.proto.security.Authorizable authorizable =
-      io.cdap.cdap.proto.security.Authorizable.fromEntityId(entityId);
-    binding.toSentryAuthorizables(authorizable.getEntityType(), authorizable, sentryAuthorizables);
-
-    Set<ActionFactory.Action> checkActions = binding.toSentryActions(actions);
-
-    // Check each action against each policy
-    Set<ActionFactory.Action> allowedActions = new HashSet<>(actions.size());
-    for (ActionFactory.Action sentryAction : checkActions) {
-      for (WildcardPolicy policy : policies) {
-        if (policy.isAllowed(sentryAuthorizables, sentryAction)) {
-          allowedActions.add(sentryAction);
-          // no need to check the other policies since this action is allowed by this policy
-          break;
-        }
-      }
-    }
+    List<Authorizable> sentryAuthorizables = binding.getEntityAuthorizables(entityId);
+    int actionMask = AuthBinding.toActionMask(actions);
 
-    if (!checkActions.equals(allowedActions)) {
+    // Every action has to be allowed by at least one policy on the path of the entity
+    if (!policies.isAllowed(sentryAuthorizables, actionMask)) {
       throw new UnauthorizedException(principal, actions, entityId, true);
     }
   }
@@ -192,29 +220,47 @@ public class SentryAuthorizer extends AbstractAuthorizer {
   public Set<? extends EntityId> isVisible(Set<? extends EntityId> entityIds, Principal principal) throws Exception {
     checkUserPrincipal(principal);
 
-    final Set<WildcardPolicy> policies = binding.getPolicies(principal);
+    PolicyIndex policies = binding.getPolicyIndex(principal);
     LOG.debug("Got policies {} for principal {}", policies, principal);
 
     if (policies.isEmpty()) {
       return Collections.emptySet();
     }
 
-    Set<EntityId> visibleEntities = new HashSet<>(entityIds.size());
-    for (EntityId entityId : entityIds) {
-      List<Authorizable> sentryAuthorizables = new ArrayList<>();
-      io.cdap.cdap.proto.security.Authorizable authorizable =
-        io.cdap.cdap.proto.security.Authorizable.fromEntityId(entityId);
-      binding.toSentryAuthorizables(authorizable.getEntityType(), authorizable, sentryAuthorizables);
-
-      // Even if one policy makes the entity visible, then the entity is visible to the principal
-      for (WildcardPolicy policy : policies) {
-        if (policy.isVisible(sentryAuthorizables)) {
-          visibleEntities.add(entityId);
-          break;
-        }
-      }
-    }
-    return visibleEntities;
+    return visibilityResolver.getVisible(policies, entityIds);
+  }
+
+  /**
+   * Returns the estimated heap used by the group, role and policy caches and by the roles and policies loaded last,
+   * see {@link AuthConf#GROUP_CACHE_MAX_BYTES}. Caches which are bounded by the number of entries instead of a memory
+   * budget always report zero.
+   *
+   * @return estimated bytes used by the cache, by name of the cache
+   */
+  public Map<String, Long> getCacheWeights() {
+    return binding.getCacheWeights();
+  }
+
+  /**
+   * Writes all roles with their groups and privileges to a local snapshot file. An authorizer configured with the
+   * snapshot in {@link AuthConf#POLICY_SNAPSHOT_FILE} enforces from it without calling Sentry.
+   *
+   * @param file the file to write, replaced if it exists
+   * @throws Exception if there was any exception while fetching roles and privileges or writing the file
+   */
+  public void exportPolicySnapshot(File file) throws Exception {
+    binding.exportPolicySnapshot(file);
+  }
+
+  /**
+   * Returns the number of group lookups, failed lookups and their total and maximum latency in microseconds. The
+   * snapshot resolvers, see {@link AuthConf#GROUP_RESOLVER}, also report the number of users, failed refreshes and
+   * the time of the last refresh.
+   *
+   * @return metrics of the group resolver, by name
+   */
+  public Map<String, Long> getGroupResolverMetrics() {
+    return binding.getGroupResolverMetrics();
   }
 
   private void checkUserPrincipal(Principal principal) {
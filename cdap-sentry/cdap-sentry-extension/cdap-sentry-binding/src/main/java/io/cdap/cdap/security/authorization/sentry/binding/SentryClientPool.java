@@ -0,0 +1,252 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Throwables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClient;
+import org.apache.thrift.TException;
+import org.apache.thrift.transport.TTransportException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of {@link SentryGenericServiceClient clients}. Opening a client costs a TCP connect and, on secure
+ * clusters, a SASL handshake, so clients are kept open between commands and handed out in LIFO order. Clients which
+ * stayed idle longer than the idle timeout are closed on borrow and by a background evictor, since the Sentry server
+ * drops such connections anyway. A client whose Thrift transport failed is never returned to the pool.
+ */
+class SentryClientPool implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SentryClientPool.class);
+  private static final long MAX_EVICTION_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private final ClientFactory factory;
+  private final long idleTimeoutNanos;
+  private final Semaphore permits;
+  // idle clients, most recently used at the head
+  private final Deque<PooledClient> idleClients = new ArrayDeque<>();
+  private final ScheduledExecutorService evictor;
+  private boolean closed;
+
+  SentryClientPool(ClientFactory factory, int maxSize, long idleTimeoutMillis) {
+    Preconditions.checkArgument(maxSize > 0, "Sentry client pool size must be positive, got %s", maxSize);
+    Preconditions.checkArgument(idleTimeoutMillis > 0, "Sentry client idle timeout must be positive, got %s",
+                                idleTimeoutMillis);
+    this.factory = factory;
+    this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+    this.permits = new Semaphore(maxSize, true);
+    this.evictor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-client-pool-evictor").build());
+    long evictionInterval = Math.min(idleTimeoutMillis, MAX_EVICTION_INTERVAL_MILLIS);
+    evictor.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        evictIdle();
+      }
+    }, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Borrows a client, reusing an idle one if there is a valid one. Blocks while all clients are borrowed.
+   * Every borrowed client must be handed back with either {@link #release(PooledClient)} or
+   * {@link #invalidate(PooledClient)}.
+   */
+  PooledClient borrow() throws Exception {
+    permits.acquire();
+    try {
+      PooledClient client;
+      while ((client = pollIdle()) != null) {
+        if (isValid(client, System.nanoTime())) {
+          return client;
+        }
+        closeQuietly(client);
+      }
+      return create();
+    } catch (Exception e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Borrows a newly opened client, bypassing idle ones. Used to retry a command after the transport of a reused
+   * client turned out to be broken, since the other idle clients have likely been dropped by the server as well.
+   */
+  PooledClient borrowNew() throws Exception {
+    permits.acquire();
+    try {
+      return create();
+    } catch (Exception e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns a healthy client to the pool
+   */
+  void release(PooledClient client) {
+    client.reused = true;
+    client.lastUsedNanos = System.nanoTime();
+    boolean pooled;
+    synchronized (idleClients) {
+      pooled = !closed;
+      if (pooled) {
+        idleClients.addFirst(client);
+      }
+    }
+    if (!pooled) {
+      closeQuietly(client);
+    }
+    permits.release();
+  }
+
+  /**
+   * Closes a client which can not be used anymore, e.g. because its transport failed
+   */
+  void invalidate(PooledClient client) {
+    closeQuietly(client);
+    permits.release();
+  }
+
+  @Override
+  public void close() {
+    evictor.shutdownNow();
+    synchronized (idleClients) {
+      closed = true;
+      for (PooledClient client : idleClients) {
+        closeQuietly(client);
+      }
+      idleClients.clear();
+    }
+  }
+
+  @VisibleForTesting
+  int getIdleCount() {
+    synchronized (idleClients) {
+      return idleClients.size();
+    }
+  }
+
+  @VisibleForTesting
+  void evictIdle() {
+    long now = System.nanoTime();
+    synchronized (idleClients) {
+      // the least recently used clients are at the tail
+      Iterator<PooledClient> iterator = idleClients.descendingIterator();
+      while (iterator.hasNext()) {
+        PooledClient client = iterator.next();
+        if (isValid(client, now)) {
+          break;
+        }
+        iterator.remove();
+        closeQuietly(client);
+      }
+    }
+  }
+
+  /**
+   * @return true if the Thrift transport of the client failed while executing a command
+   */
+  static boolean isTransportFailure(Throwable t) {
+    for (Throwable cause : Throwables.getCausalChain(t)) {
+      if (cause instanceof TTransportException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @return true if the client should not be reused after the given failure, which is the case for any Thrift level
+   * error, since the stream may be left in the middle of a message
+   */
+  static boolean isConnectionFailure(Throwable t) {
+    for (Throwable cause : Throwables.getCausalChain(t)) {
+      if (cause instanceof TException) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private PooledClient pollIdle() {
+    synchronized (idleClients) {
+      return idleClients.pollFirst();
+    }
+  }
+
+  private boolean isValid(PooledClient client, long now) {
+    return now - client.lastUsedNanos < idleTimeoutNanos;
+  }
+
+  private PooledClient create() throws Exception {
+    LOG.trace("Opening new Sentry client");
+    return new PooledClient(factory.create());
+  }
+
+  private static void closeQuietly(PooledClient client) {
+    try {
+      client.getClient().close();
+    } catch (Exception e) {
+      LOG.debug("Failed to close Sentry client", e);
+    }
+  }
+
+  /**
+   * Opens new {@link SentryGenericServiceClient clients}
+   */
+  interface ClientFactory {
+    SentryGenericServiceClient create() throws Exception;
+  }
+
+  /**
+   * A {@link SentryGenericServiceClient} owned by the pool
+   */
+  static final class PooledClient {
+    private final SentryGenericServiceClient client;
+    private boolean reused;
+    private long lastUsedNanos;
+
+    private PooledClient(SentryGenericServiceClient client) {
+      this.client = client;
+      this.lastUsedNanos = System.nanoTime();
+    }
+
+    SentryGenericServiceClient getClient() {
+      return client;
+    }
+
+    /**
+     * @return true if the client was used by an earlier command, so its connection may have been dropped meanwhile
+     */
+    boolean isReused() {
+      return reused;
+    }
+  }
+}
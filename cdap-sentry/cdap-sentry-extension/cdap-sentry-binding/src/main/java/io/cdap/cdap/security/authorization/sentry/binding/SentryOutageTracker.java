@@ -0,0 +1,156 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * Tracks whether Sentry is reachable. Once a call fails because Sentry can not be reached, the outage starts and
+ * cache loads fail fast instead of waiting for Sentry on every request. During the outage a single background thread
+ * probes Sentry with exponential backoff, and the outage ends with the first successful probe.
+ */
+class SentryOutageTracker implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SentryOutageTracker.class);
+
+  private final Probe probe;
+  private final long initialBackoffMillis;
+  private final long maxBackoffMillis;
+  private final ScheduledExecutorService prober;
+
+  // guards the fields below
+  private final Object lock = new Object();
+  // cause of the current outage, null if Sentry is reachable
+  @Nullable
+  private Throwable outageCause;
+  private long outageStartMillis;
+  private long backoffMillis;
+
+  SentryOutageTracker(Probe probe, long initialBackoffMillis, long maxBackoffMillis) {
+    this.probe = probe;
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = Math.max(initialBackoffMillis, maxBackoffMillis);
+    this.prober = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-outage-probe").build());
+  }
+
+  /**
+   * @return true if Sentry is considered reachable
+   */
+  boolean isAvailable() {
+    synchronized (lock) {
+      return outageCause == null;
+    }
+  }
+
+  /**
+   * @throws IOException caused by the failure which started the outage, if Sentry is unreachable
+   */
+  void checkAvailable() throws IOException {
+    synchronized (lock) {
+      if (outageCause != null) {
+        throw new IOException(String.format("Sentry is unreachable since %tc, retrying in the background",
+                                            outageStartMillis), outageCause);
+      }
+    }
+  }
+
+  /**
+   * Records a failed call to Sentry. Starts an outage and the background probe if the failure means that Sentry can
+   * not be reached.
+   */
+  void failed(Throwable failure) {
+    if (!SentryClientPool.isTransportFailure(failure)) {
+      return;
+    }
+    synchronized (lock) {
+      if (outageCause != null) {
+        return;
+      }
+      outageCause = failure;
+      outageStartMillis = System.currentTimeMillis();
+      backoffMillis = initialBackoffMillis;
+    }
+    LOG.warn("Sentry is unreachable, serving previously loaded values and retrying in the background", failure);
+    scheduleProbe(initialBackoffMillis);
+  }
+
+  @Override
+  public void close() {
+    prober.shutdownNow();
+  }
+
+  @VisibleForTesting
+  long getBackoffMillis() {
+    synchronized (lock) {
+      return backoffMillis;
+    }
+  }
+
+  private void scheduleProbe(long delayMillis) {
+    if (prober.isShutdown()) {
+      return;
+    }
+    prober.schedule(new Runnable() {
+      @Override
+      public void run() {
+        runProbe();
+      }
+    }, delayMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void runProbe() {
+    try {
+      probe.run();
+    } catch (Exception e) {
+      if (SentryClientPool.isTransportFailure(e)) {
+        long nextBackoffMillis;
+        synchronized (lock) {
+          backoffMillis = Math.min(maxBackoffMillis, backoffMillis * 2);
+          nextBackoffMillis = backoffMillis;
+        }
+        LOG.debug("Sentry is still unreachable, probing again in {} ms", nextBackoffMillis, e);
+        scheduleProbe(nextBackoffMillis);
+        return;
+      }
+      // any other failure means that Sentry responded
+      LOG.debug("Probe of Sentry failed, but Sentry is reachable", e);
+    }
+    long outageMillis;
+    synchronized (lock) {
+      outageMillis = System.currentTimeMillis() - outageStartMillis;
+      outageCause = null;
+    }
+    LOG.info("Sentry is reachable again after {} ms", outageMillis);
+  }
+
+  /**
+   * A cheap call to Sentry which succeeds if Sentry is reachable
+   */
+  interface Probe {
+    void run() throws Exception;
+  }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.cdap.proto.security.Role;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+
+/**
+ * A local replica of all roles, group to role mappings and privileges of the cdap component in Sentry. Everything is
+ * bulk loaded on start, so enforcement never has to wait for Sentry.
+ * <p>
+ * The Sentry generic model service has no change log, so the replica polls the list of all roles with their groups,
+ * which is a single call, and applies the difference: privileges of roles which are new or whose groups changed are
+ * fetched and dropped roles are removed. Privileges of all roles are resynced at a longer interval, with one concurrent
+ * call per role, at a random point of the second half of the interval so that nodes do not resync at the same time.
+ * Changes made through {@link AuthBinding} are applied right away by refreshing the affected roles.
+ * <p>
+ * Readers get immutable sets which stay the same objects as long as their content does not change, so values
+ * derived from them can be validated by identity.
+ */
+class SentryPolicyReplica implements Closeable {
+  private static final Logger LOG = LoggerFactory.getLogger(SentryPolicyReplica.class);
+
+  private final Source source;
+  // runs the calls fetching privileges of the roles
+  private final Executor fetchExecutor;
+  private final long pollIntervalMillis;
+  private final long resyncIntervalMillis;
+  private final ScheduledExecutorService poller;
+
+  // guards the fields below, which are the working copy of the state
+  private final Object lock = new Object();
+  // role name to names of the groups the role is granted to
+  private final Map<String, Set<String>> roleGroups = new HashMap<>();
+  private final Map<String, RoleEntry> roleEntries = new HashMap<>();
+  // reverse index from authorizables of privileges to names of the roles having privileges on them
+  private final Map<List<TAuthorizable>, Set<String>> authorizableRoles = new HashMap<>();
+  // generation of the update which last changed the privileges of a role
+  private final Map<String, Long> roleGenerations = new HashMap<>();
+  private long roleGroupsGeneration;
+  private long generation;
+  private long nextResyncNanos;
+
+  // immutable state published to readers
+  private volatile State state = new State(Collections.<String, Set<Role>>emptyMap(),
+                                           Collections.<String, RoleEntry>emptyMap(), 0L);
+
+  SentryPolicyReplica(Source source, Executor fetchExecutor, long pollIntervalMillis, long resyncIntervalMillis) {
+    this.source = source;
+    this.fetchExecutor = fetchExecutor;
+    this.pollIntervalMillis = pollIntervalMillis;
+    this.resyncIntervalMillis = resyncIntervalMillis;
+    this.poller = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-policy-replica").build());
+  }
+
+  /**
+   * Loads everything from Sentry and starts polling for changes, unless the poll interval is not positive
+   *
+   * @throws Exception if the initial load failed
+   */
+  void start() throws Exception {
+    resync();
+    if (pollIntervalMillis <= 0) {
+      return;
+    }
+    poller.scheduleWithFixedDelay(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (System.nanoTime() - getNextResyncNanos() >= 0) {
+            resync();
+          } else {
+            refreshRoleGroups();
+          }
+        } catch (Exception e) {
+          LOG.warn("Failed to poll Sentry for policy changes, serving the last known policies", e);
+        }
+      }
+    }, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void close() {
+    poller.shutdownNow();
+  }
+
+  /**
+   * @return roles granted to the group
+   */
+  Set<Role> getRoles(String group) {
+    Set<Role> roles = state.groupRoles.get(group);
+    return roles == null ? Collections.<Role>emptySet() : roles;
+  }
+
+  /**
+   * @return policies of the role
+   */
+  Set<WildcardPolicy> getPolicies(Role role) {
+    RoleEntry entry = state.roleEntries.get(role.getName());
+    return entry == null ? Collections.<WildcardPolicy>emptySet() : entry.policies;
+  }
+
+  /**
+   * @return version of the published roles and policies, which changes whenever any of them changed
+   */
+  long getVersion() {
+    return state.version;
+  }
+
+  /**
+   * Reloads all roles, their groups and privileges. Privileges of the roles are fetched concurrently.
+   */
+  void resync() throws Exception {
+    long startGeneration = getGeneration();
+    Map<String, Set<String>> newRoleGroups = source.listRoleGroups();
+    Map<String, Set<TSentryPrivilege>> newPrivileges = fetchPrivileges(newRoleGroups.keySet());
+
+    synchronized (lock) {
+      boolean changed = applyRoleGroups(newRoleGroups, startGeneration);
+      for (Map.Entry<String, Set<TSentryPrivilege>> entry : newPrivileges.entrySet()) {
+        changed |= applyPrivileges(entry.getKey(), entry.getValue(), startGeneration);
+      }
+      if (changed) {
+        publish();
+      }
+      long resyncDelayNanos = TimeUnit.MILLISECONDS.toNanos(resyncIntervalMillis);
+      nextResyncNanos = System.nanoTime() + resyncDelayNanos / 2
+        + ThreadLocalRandom.current().nextLong(resyncDelayNanos / 2 + 1);
+    }
+    LOG.debug("Resynced {} Sentry roles", newRoleGroups.size());
+  }
+
+  /**
+   * Reloads the roles with their groups. Privileges are only fetched for roles which are new or whose groups changed.
+   */
+  void refreshRoleGroups() throws Exception {
+    long startGeneration = getGeneration();
+    Map<String, Set<String>> newRoleGroups = source.listRoleGroups();
+    Set<String> changedRoles = new HashSet<>();
+    synchronized (lock) {
+      for (Map.Entry<String, Set<String>> entry : newRoleGroups.entrySet()) {
+        if (!roleEntries.containsKey(entry.getKey()) || !entry.getValue().equals(roleGroups.get(entry.getKey()))) {
+          changedRoles.add(entry.getKey());
+        }
+      }
+    }
+    Map<String, Set<TSentryPrivilege>> newPrivileges = fetchPrivileges(changedRoles);
+
+    synchronized (lock) {
+      boolean changed = applyRoleGroups(newRoleGroups, startGeneration);
+      for (Map.Entry<String, Set<TSentryPrivilege>> entry : newPrivileges.entrySet()) {
+        changed |= applyPrivileges(entry.getKey(), entry.getValue(), startGeneration);
+      }
+      if (changed) {
+        LOG.debug("Applied changes of Sentry roles, new or changed roles {}", changedRoles);
+        publish();
+      }
+    }
+  }
+
+  /**
+   * Fetches privileges of the roles concurrently
+   *
+   * @return names of the roles to their privileges
+   */
+  private Map<String, Set<TSentryPrivilege>> fetchPrivileges(Collection<String> roles) throws Exception {
+    Map<String, FutureTask<Set<TSentryPrivilege>>> futures = new HashMap<>();
+    for (final String role : roles) {
+      FutureTask<Set<TSentryPrivilege>> future = new FutureTask<>(new Callable<Set<TSentryPrivilege>>() {
+        @Override
+        public Set<TSentryPrivilege> call() throws Exception {
+          return source.listPrivileges(role);
+        }
+      });
+      futures.put(role, future);
+      fetchExecutor.execute(future);
+    }
+    Map<String, Set<TSentryPrivilege>> newPrivileges = new HashMap<>();
+    try {
+      for (Map.Entry<String, FutureTask<Set<TSentryPrivilege>>> entry : futures.entrySet()) {
+        newPrivileges.put(entry.getKey(), AuthBinding.getFutureValue(entry.getValue()));
+      }
+    } finally {
+      for (FutureTask<Set<TSentryPrivilege>> future : futures.values()) {
+        future.cancel(true);
+      }
+    }
+    return newPrivileges;
+  }
+
+  /**
+   * Reloads privileges of the given roles, e.g. after privileges were granted to or revoked from them
+   */
+  void refreshRoles(Collection<String> roles) throws Exception {
+    long startGeneration = getGeneration();
+    Map<String, Set<TSentryPrivilege>> newPrivileges = new HashMap<>();
+    for (String role : roles) {
+      String name = getRoleName(role);
+      newPrivileges.put(name, source.listPrivileges(name));
+    }
+
+    synchronized (lock) {
+      boolean changed = false;
+      for (Map.Entry<String, Set<TSentryPrivilege>> entry : newPrivileges.entrySet()) {
+        changed |= applyPrivileges(entry.getKey(), entry.getValue(), startGeneration);
+      }
+      if (changed) {
+        publish();
+      }
+    }
+  }
+
+  /**
+   * Looks up privileges on exactly the given authorizables in the reverse index
+   *
+   * @return names of roles to their privileges on the authorizables
+   */
+  Map<String, Set<TSentryPrivilege>> getPrivilegesOn(List<TAuthorizable> authorizables) {
+    Map<String, Set<TSentryPrivilege>> result = new HashMap<>();
+    synchronized (lock) {
+      Set<String> roles = authorizableRoles.get(authorizables);
+      if (roles == null) {
+        return result;
+      }
+      for (String role : roles) {
+        Set<TSentryPrivilege> privileges = new HashSet<>();
+        for (TSentryPrivilege privilege : roleEntries.get(role).privileges) {
+          if (authorizables.equals(privilege.getAuthorizables())) {
+            privileges.add(privilege);
+          }
+        }
+        result.put(role, privileges);
+      }
+    }
+    return result;
+  }
+
+  private long getGeneration() {
+    synchronized (lock) {
+      return generation;
+    }
+  }
+
+  private long getNextResyncNanos() {
+    synchronized (lock) {
+      return nextResyncNanos;
+    }
+  }
+
+  /**
+   * @return the name under which Sentry knows the role, Sentry stores role names in lower case
+   */
+  private String getRoleName(String role) {
+    synchronized (lock) {
+      if (roleGroups.containsKey(role)) {
+        return role;
+      }
+      for (String name : roleGroups.keySet()) {
+        if (name.equalsIgnoreCase(role)) {
+          return name;
+        }
+      }
+      return role;
+    }
+  }
+
+  /**
+   * Replaces role to groups mapping, unless it was changed by an update started after the given generation.
+   * Privileges of roles which are gone are dropped as well.
+   */
+  private boolean applyRoleGroups(Map<String, Set<String>> newRoleGroups, long startGeneration) {
+    if (roleGroupsGeneration > startGeneration || roleGroups.equals(newRoleGroups)) {
+      return false;
+    }
+    roleGroups.clear();
+    roleGroups.putAll(newRoleGroups);
+    Iterator<Map.Entry<String, RoleEntry>> iterator = roleEntries.entrySet().iterator();
+    while (iterator.hasNext()) {
+      Map.Entry<String, RoleEntry> entry = iterator.next();
+      if (!newRoleGroups.containsKey(entry.getKey())) {
+        unindex(entry.getKey(), entry.getValue());
+        iterator.remove();
+      }
+    }
+    roleGenerations.keySet().retainAll(newRoleGroups.keySet());
+    roleGroupsGeneration = ++generation;
+    return true;
+  }
+
+  /**
+   * Replaces privileges of a role, unless they were changed by an update started after the given generation
+   */
+  private boolean applyPrivileges(String role, @Nullable Set<TSentryPrivilege> privileges, long startGeneration) {
+    Long roleGeneration = roleGenerations.get(role);
+    if (roleGeneration != null && roleGeneration > startGeneration) {
+      return false;
+    }
+    Set<TSentryPrivilege> newPrivileges = privileges == null ?
+      Collections.<TSentryPrivilege>emptySet() : ImmutableSet.copyOf(privileges);
+    RoleEntry current = roleEntries.get(role);
+    if (current != null && current.privileges.equals(newPrivileges)) {
+      return false;
+    }
+    RoleEntry entry = new RoleEntry(newPrivileges, AuthBinding.toWildcardPolicies(newPrivileges));
+    if (current != null) {
+      unindex(role, current);
+    }
+    index(role, entry);
+    roleEntries.put(role, entry);
+    roleGenerations.put(role, ++generation);
+    return true;
+  }
+
+  private void index(String role, RoleEntry entry) {
+    for (TSentryPrivilege privilege : entry.privileges) {
+      Set<String> roles = authorizableRoles.get(privilege.getAuthorizables());
+      if (roles == null) {
+        roles = new HashSet<>();
+        authorizableRoles.put(privilege.getAuthorizables(), roles);
+      }
+      roles.add(role);
+    }
+  }
+
+  private void unindex(String role, RoleEntry entry) {
+    for (TSentryPrivilege privilege : entry.privileges) {
+      Set<String> roles = authorizableRoles.get(privilege.getAuthorizables());
+      if (roles != null && roles.remove(role) && roles.isEmpty()) {
+        authorizableRoles.remove(privilege.getAuthorizables());
+      }
+    }
+  }
+
+  /**
+   * Publishes the working copy to readers, reusing role sets of groups which did not change
+   */
+  private void publish() {
+    Map<String, Set<Role>> groupRoles = new HashMap<>();
+    for (Map.Entry<String, Set<String>> entry : roleGroups.entrySet()) {
+      Role role = new Role(entry.getKey());
+      for (String group : entry.getValue()) {
+        Set<Role> roles = groupRoles.get(group);
+        if (roles == null) {
+          roles = new HashSet<>();
+          groupRoles.put(group, roles);
+        }
+        roles.add(role);
+      }
+    }
+
+    State current = state;
+    ImmutableMap.Builder<String, Set<Role>> published = ImmutableMap.builder();
+    for (Map.Entry<String, Set<Role>> entry : groupRoles.entrySet()) {
+      Set<Role> currentRoles = current.groupRoles.get(entry.getKey());
+      published.put(entry.getKey(), entry.getValue().equals(currentRoles) ?
+        currentRoles : Collections.unmodifiableSet(entry.getValue()));
+    }
+    state = new State(published.build(), ImmutableMap.copyOf(roleEntries), generation);
+  }
+
+  /**
+   * Reads roles and privileges from Sentry
+   */
+  interface Source {
+    /**
+     * @return names of all roles to names of groups each role is granted to
+     */
+    Map<String, Set<String>> listRoleGroups() throws Exception;
+
+    /**
+     * @return all privileges of the role
+     */
+    Set<TSentryPrivilege> listPrivileges(String role) throws Exception;
+  }
+
+  /**
+   * Privileges of a role in both raw and compiled form
+   */
+  private static final class RoleEntry {
+    private final Set<TSentryPrivilege> privileges;
+    private final Set<WildcardPolicy> policies;
+
+    private RoleEntry(Set<TSentryPrivilege> privileges, Set<WildcardPolicy> policies) {
+      this.privileges = privileges;
+      this.policies = policies;
+    }
+  }
+
+  /**
+   * State visible to readers
+   */
+  private static final class State {
+    private final Map<String, Set<Role>> groupRoles;
+    private final Map<String, RoleEntry> roleEntries;
+    // generation of the working copy this state was published from
+    private final long version;
+
+    private State(Map<String, Set<Role>> groupRoles, Map<String, RoleEntry> roleEntries, long version) {
+      this.groupRoles = groupRoles;
+      this.roleEntries = roleEntries;
+      this.version = version;
+    }
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * {@link GroupResolver} answering from an in-memory snapshot of the groups of all users. The snapshot is loaded in
+ * bulk on initialize and then refreshed by a background thread every {@link AuthConf#GROUP_RESOLVER_REFRESH_SECS},
+ * so lookups never wait for the source of the groups. If a refresh fails, the last snapshot is kept.
+ */
+public abstract class SnapshotGroupResolver implements GroupResolver {
+  private static final Logger LOG = LoggerFactory.getLogger(SnapshotGroupResolver.class);
+
+  private final AtomicLong refreshFailures = new AtomicLong();
+  private volatile Map<String, Set<String>> snapshot = Collections.emptyMap();
+  private volatile long lastRefreshMillis;
+  @Nullable
+  private ScheduledExecutorService refresher;
+
+  @Override
+  public void initialize(Properties properties) throws Exception {
+    long refreshSecs = Long.parseLong(properties.getProperty(AuthConf.GROUP_RESOLVER_REFRESH_SECS,
+                                                             AuthConf.GROUP_RESOLVER_REFRESH_SECS_DEFAULT));
+    // fail initialization rather than deny everyone until the first refresh
+    refresh();
+    if (refreshSecs > 0) {
+      refresher = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("sentry-group-refresh").build());
+      refresher.scheduleWithFixedDelay(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            refresh();
+          } catch (Exception e) {
+            refreshFailures.incrementAndGet();
+            LOG.warn("Failed to refresh groups of users, keeping the groups of {} users loaded at {}",
+                     snapshot.size(), String.format("%tc", lastRefreshMillis), e);
+          }
+        }
+      }, refreshSecs, refreshSecs, TimeUnit.SECONDS);
+    }
+  }
+
+  @Override
+  public Set<String> getGroups(String user) {
+    Set<String> groups = snapshot.get(user);
+    return groups == null ? Collections.<String>emptySet() : groups;
+  }
+
+  /**
+   * Loads the groups of all users and replaces the snapshot, unless they did not change since the last load
+   */
+  @VisibleForTesting
+  synchronized void refresh() throws Exception {
+    Map<String, Set<String>> groups = loadGroups();
+    if (groups == null) {
+      LOG.trace("Groups of users did not change");
+      return;
+    }
+    Map<String, Set<String>> newSnapshot = new HashMap<>(groups.size());
+    for (Map.Entry<String, Set<String>> entry : groups.entrySet()) {
+      newSnapshot.put(entry.getKey(), ImmutableSet.copyOf(entry.getValue()));
+    }
+    snapshot = newSnapshot;
+    lastRefreshMillis = System.currentTimeMillis();
+    LOG.debug("Loaded groups of {} users", newSnapshot.size());
+  }
+
+  /**
+   * Loads the groups of all users. Never called concurrently.
+   *
+   * @return groups by name of the user, or null if the groups did not change since the last load
+   */
+  @Nullable
+  protected abstract Map<String, Set<String>> loadGroups() throws Exception;
+
+  /**
+   * @return number of users in the current snapshot
+   */
+  public int getUserCount() {
+    return snapshot.size();
+  }
+
+  /**
+   * @return time in milliseconds when the current snapshot was loaded
+   */
+  public long getLastRefreshMillis() {
+    return lastRefreshMillis;
+  }
+
+  /**
+   * @return number of background refreshes which failed
+   */
+  public long getRefreshFailures() {
+    return refreshFailures.get();
+  }
+
+  @Override
+  public void close() {
+    if (refresher != null) {
+      refresher.shutdownNow();
+    }
+  }
+}
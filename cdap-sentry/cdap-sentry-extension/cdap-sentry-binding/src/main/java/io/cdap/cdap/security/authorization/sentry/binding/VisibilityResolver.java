@@ -0,0 +1,168 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import io.cdap.cdap.proto.id.EntityId;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Finds the entities visible through a {@link PolicyIndex}. Entities are grouped by their parent, so the parent of
+ * every group is matched once with a {@link PolicyIndex.VisibilityCheck}, and many entities are split over a
+ * fork-join pool by groups.
+ */
+final class VisibilityResolver implements Closeable {
+
+  // number of entities checked by one task of the fork-join pool, larger groups of siblings are split
+  private static final int TASK_SIZE = 1024;
+
+  private final AuthBinding binding;
+  private final ForkJoinPool pool;
+  private final int parallelThreshold;
+
+  VisibilityResolver(AuthBinding binding, int parallelism, int parallelThreshold) {
+    this.binding = binding;
+    this.pool = new ForkJoinPool(parallelism);
+    this.parallelThreshold = parallelThreshold;
+  }
+
+  /**
+   * @return the entities from the given ones which are visible through the given policies
+   */
+  Set<EntityId> getVisible(PolicyIndex policies, Collection<? extends EntityId> entityIds) {
+    PolicyIndex.VisibilityCheck check = policies.newVisibilityCheck();
+    List<Siblings> groups = groupByParent(entityIds);
+    if (entityIds.size() < parallelThreshold) {
+      Set<EntityId> visibleEntities = new HashSet<>();
+      for (Siblings siblings : groups) {
+        siblings.addVisible(check, visibleEntities);
+      }
+      return visibleEntities;
+    }
+
+    // offsets[i] is the number of entities in the groups before group i
+    int[] offsets = new int[groups.size() + 1];
+    for (int i = 0; i < groups.size(); i++) {
+      offsets[i + 1] = offsets[i] + groups.get(i).entityIds.size();
+    }
+    Set<EntityId> visibleEntities = Collections.newSetFromMap(new ConcurrentHashMap<EntityId, Boolean>());
+    pool.invoke(new VisibilityTask(check, groups, offsets, 0, groups.size(), visibleEntities));
+    return visibleEntities;
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+
+  /**
+   * Groups the entities by the authorizables of their parent, in groups of at most {@link #TASK_SIZE} entities.
+   * Entities without authorizables are never visible and are left out.
+   */
+  private List<Siblings> groupByParent(Collection<? extends EntityId> entityIds) {
+    Map<List<Authorizable>, Siblings> parents = new HashMap<>();
+    List<Siblings> groups = new ArrayList<>();
+    for (EntityId entityId : entityIds) {
+      List<Authorizable> authorizables = binding.getEntityAuthorizables(entityId);
+      int size = authorizables.size();
+      if (size == 0) {
+        continue;
+      }
+      List<Authorizable> parentAuthorizables = authorizables.subList(0, size - 1);
+      Siblings siblings = parents.get(parentAuthorizables);
+      if (siblings == null || siblings.entityIds.size() >= TASK_SIZE) {
+        siblings = new Siblings(parentAuthorizables);
+        parents.put(parentAuthorizables, siblings);
+        groups.add(siblings);
+      }
+      siblings.entityIds.add(entityId);
+      siblings.authorizables.add(authorizables.get(size - 1));
+    }
+    return groups;
+  }
+
+  /**
+   * Entities with the same parent
+   */
+  private static final class Siblings {
+    private final List<Authorizable> parentAuthorizables;
+    private final List<EntityId> entityIds = new ArrayList<>();
+    // last authorizable of every entity
+    private final List<Authorizable> authorizables = new ArrayList<>();
+
+    private Siblings(List<Authorizable> parentAuthorizables) {
+      this.parentAuthorizables = parentAuthorizables;
+    }
+
+    private void addVisible(PolicyIndex.VisibilityCheck check, Set<EntityId> visibleEntities) {
+      PolicyIndex.ParentMatch parent = check.matchParent(parentAuthorizables);
+      for (int i = 0; i < entityIds.size(); i++) {
+        // Even if one policy makes the entity visible, then the entity is visible to the principal
+        if (parent.isVisible(authorizables.get(i))) {
+          visibleEntities.add(entityIds.get(i));
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks a range of groups, splitting it in halves until it has few enough entities or a single group
+   */
+  private static final class VisibilityTask extends RecursiveAction {
+    private final PolicyIndex.VisibilityCheck check;
+    private final List<Siblings> groups;
+    private final int[] offsets;
+    private final int from;
+    private final int to;
+    private final Set<EntityId> visibleEntities;
+
+    private VisibilityTask(PolicyIndex.VisibilityCheck check, List<Siblings> groups, int[] offsets, int from, int to,
+                           Set<EntityId> visibleEntities) {
+      this.check = check;
+      this.groups = groups;
+      this.offsets = offsets;
+      this.from = from;
+      this.to = to;
+      this.visibleEntities = visibleEntities;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1 || offsets[to] - offsets[from] <= TASK_SIZE) {
+        for (int i = from; i < to; i++) {
+          groups.get(i).addVisible(check, visibleEntities);
+        }
+        return;
+      }
+      int middle = (from + to) >>> 1;
+      invokeAll(new VisibilityTask(check, groups, offsets, from, middle, visibleEntities),
+                new VisibilityTask(check, groups, offsets, middle, to, visibleEntities));
+    }
+  }
+}
@@ -19,8 +19,6 @@ package io.cdap.cdap.security.authorization.sentry.binding;
 import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.annotation.Nullable;
 
 /**
@@ -28,28 +26,55 @@ import javax.annotation.Nullable;
  * "*" and "?" are the supported wildcards, "*" matches any number of characters and "?" matches one character.
  */
 class WildcardAuthorizable {
-  // TODO: can type have wildcards in it?
-  // Type is case insensitive
-  private final String type;
+  // Type of the authorizable, types can not have wildcards
+  private final Authorizable.AuthorizableType type;
   // TODO: can sub-type have wildcards in it?
   // Sub type is case insensitive
   @Nullable
   private final String subType;
   // Name is case sensitive, and only * and ? are allowed as wildcards in the name pattern
-  private final Pattern namePattern;
+  private final String name;
+  // How the name is matched, chosen once from the wildcards found in the name
+  private final MatchKind matchKind;
+  // Literal part of the name for PREFIX and SUFFIX match kinds
+  private final String literal;
 
   WildcardAuthorizable(Authorizable authorizable) {
-    this.type = authorizable.getTypeName();
+    this.type = authorizable.getAuthzType();
     this.subType = authorizable.getSubType();
+    this.name = authorizable.getName();
 
     // Only * and ? are allowed to be wildcards in the pattern, everything else should be matched literally
-    this.namePattern = Pattern.compile(Pattern.quote(authorizable.getName())
-                                         .replace("*", "\\E.*\\Q")
-                                         .replace("?", "\\E.\\Q"));
+    int firstStar = name.indexOf('*');
+    int lastStar = name.lastIndexOf('*');
+    boolean hasQuestionMark = name.indexOf('?') >= 0;
+    if (firstStar < 0 && !hasQuestionMark) {
+      this.matchKind = MatchKind.EXACT;
+      this.literal = name;
+    } else if (hasQuestionMark) {
+      this.matchKind = MatchKind.GLOB;
+      this.literal = name;
+    } else if (isAllStars(name)) {
+      this.matchKind = MatchKind.ALL;
+      this.literal = "";
+    } else if (firstStar == lastStar && lastStar == name.length() - 1) {
+      this.matchKind = MatchKind.PREFIX;
+      this.literal = name.substring(0, lastStar);
+    } else if (firstStar == lastStar && firstStar == 0) {
+      this.matchKind = MatchKind.SUFFIX;
+      this.literal = name.substring(1);
+    } else {
+      this.matchKind = MatchKind.GLOB;
+      this.literal = name;
+    }
   }
 
   boolean matches(Authorizable authorizable) {
-    if (authorizable == null || authorizable.getName() == null) {
+    if (authorizable == null) {
+      return false;
+    }
+    String otherName = authorizable.getName();
+    if (otherName == null || type != authorizable.getAuthzType()) {
       return false;
     }
 
@@ -57,8 +82,90 @@ class WildcardAuthorizable {
       return false;
     }
 
-    Matcher matcher = namePattern.matcher(authorizable.getName());
-    return type.equalsIgnoreCase(authorizable.getTypeName()) && matcher.matches();
+    switch (matchKind) {
+      case EXACT:
+        return literal.equals(otherName);
+      case ALL:
+        return true;
+      case PREFIX:
+        return otherName.startsWith(literal);
+      case SUFFIX:
+        return otherName.endsWith(literal);
+      default:
+        return globMatches(literal, otherName);
+    }
+  }
+
+  Authorizable.AuthorizableType getAuthzType() {
+    return type;
+  }
+
+  @Nullable
+  String getSubType() {
+    return subType;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  /**
+   * @return true if the name has no wildcards, so it only matches an authorizable with exactly the same name
+   */
+  boolean isLiteral() {
+    return matchKind == MatchKind.EXACT;
+  }
+
+  /**
+   * Matches the text against a pattern where '*' matches any number of characters and '?' matches exactly one.
+   * On a mismatch only the most recent '*' is extended by one character, which is enough since any earlier '*'
+   * could only consume what the later one can consume as well. Runs in O(pattern * text) in the worst case and
+   * does not allocate.
+   */
+  static boolean globMatches(String pattern, String text) {
+    int patternLength = pattern.length();
+    int textLength = text.length();
+    int patternIndex = 0;
+    int textIndex = 0;
+    // position in the pattern after the most recent '*' and position in the text it was matched at
+    int starIndex = -1;
+    int starTextIndex = 0;
+
+    while (textIndex < textLength) {
+      if (patternIndex < patternLength) {
+        char c = pattern.charAt(patternIndex);
+        if (c == '*') {
+          starIndex = ++patternIndex;
+          starTextIndex = textIndex;
+          continue;
+        }
+        if (c == '?' || c == text.charAt(textIndex)) {
+          patternIndex++;
+          textIndex++;
+          continue;
+        }
+      }
+      if (starIndex < 0) {
+        return false;
+      }
+      // let the most recent '*' consume one more character and retry the rest of the pattern from there
+      patternIndex = starIndex;
+      textIndex = ++starTextIndex;
+    }
+
+    while (patternIndex < patternLength && pattern.charAt(patternIndex) == '*') {
+      patternIndex++;
+    }
+    return patternIndex == patternLength;
+  }
+
+  private static boolean isAllStars(String name) {
+    for (int i = 0; i < name.length(); i++) {
+      if (name.charAt(i) != '*') {
+        return false;
+      }
+    }
+    return true;
   }
 
   @Override
@@ -72,12 +179,12 @@ class WildcardAuthorizable {
     WildcardAuthorizable that = (WildcardAuthorizable) o;
     return Objects.equals(type, that.type) &&
       Objects.equals(subType, that.subType) &&
-      Objects.equals(namePattern.toString(), that.namePattern.toString());
+      Objects.equals(name, that.name);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(type, subType, namePattern.toString());
+    return Objects.hash(type, subType, name);
   }
 
   @Override
@@ -85,7 +192,24 @@ class WildcardAuthorizable {
     return "WildcardAuthorizable{" +
       "type='" + type + '\'' +
       ", subType='" + subType + '\'' +
-      ", namePattern=" + namePattern +
+      ", name=" + name +
+      ", matchKind=" + matchKind +
       '}';
   }
+
+  /**
+   * Ways of matching a name, from the cheapest to the most general one
+   */
+  private enum MatchKind {
+    // no wildcards
+    EXACT,
+    // only '*'
+    ALL,
+    // literal followed by a single '*'
+    PREFIX,
+    // single '*' followed by a literal
+    SUFFIX,
+    // any other combination of '*' and '?'
+    GLOB
+  }
 }
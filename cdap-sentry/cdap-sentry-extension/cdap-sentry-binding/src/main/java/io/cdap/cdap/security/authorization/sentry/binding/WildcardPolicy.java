@@ -16,6 +16,8 @@
 
 package io.cdap.cdap.security.authorization.sentry.binding;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
 import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
 
@@ -28,6 +30,9 @@ import java.util.Objects;
  * Used to match wildcard privileges. Supports both access and visibility checking.
  */
 class WildcardPolicy {
+  // authorizables are shared by all policies, e.g. the instance and namespaces appear in most of them
+  private static final Interner<WildcardAuthorizable> AUTHORIZABLES = Interners.newWeakInterner();
+
   private final List<WildcardAuthorizable> wildcardAuthorizables;
   private final ActionFactory.Action allowedAction;
 
@@ -41,10 +46,18 @@ class WildcardPolicy {
 
     this.wildcardAuthorizables = new ArrayList<>(authorizables.size());
     for (Authorizable authorizable : authorizables) {
-      this.wildcardAuthorizables.add(new WildcardAuthorizable(authorizable));
+      this.wildcardAuthorizables.add(AUTHORIZABLES.intern(new WildcardAuthorizable(authorizable)));
     }
   }
 
+  List<WildcardAuthorizable> getAuthorizables() {
+    return wildcardAuthorizables;
+  }
+
+  ActionFactory.Action getAllowedAction() {
+    return allowedAction;
+  }
+
   /**
    * Checks whether the {@param action} is allowed on the entity represented by {@param entityAuthorizables}
    * based on this policy.
@@ -43,6 +43,74 @@ public class AuthConf extends Configuration {
   // Maximum number of entries to keep in the cache. An entry of 0 would disable caching.
   public static final String CACHE_MAX_ENTRIES = "cache.max.entries";
   public static final String CACHE_MAX_ENTRIES_DEFAULT = "50000";
+  // TTL of group, role and policy cache entries, each defaults to cache.ttl.secs. Unless cache.expiry.secs is set, an
+  // entry expires after its TTL and is reloaded in the background on access once it is older than half of the TTL.
+  public static final String GROUP_CACHE_TTL_SECS = "cache.group.ttl.secs";
+  public static final String ROLE_CACHE_TTL_SECS = "cache.role.ttl.secs";
+  public static final String POLICY_CACHE_TTL_SECS = "cache.policy.ttl.secs";
+  // Age after which cache entries are dropped and have to be loaded synchronously. It bounds for how long a stale
+  // entry can be served and defaults to the TTL of the cache. If it is set above the TTL, an entry older than its
+  // TTL is reloaded in the background on next access while the old value is still served, so a revoked privilege
+  // can stay in effect for up to this long.
+  public static final String CACHE_EXPIRY_SECS = "cache.expiry.secs";
+  // Number of threads reloading cache entries in the background
+  public static final String CACHE_RELOAD_THREADS = "cache.reload.threads";
+  public static final String CACHE_RELOAD_THREADS_DEFAULT = "4";
+  // Memory budgets in bytes of the group, role and policy caches, estimated per entry. If a budget is set, the cache is
+  // bounded by it instead of by the number of entries. The roles and policies loaded last, which are kept for
+  // cache.stale.grace.secs, are bounded by the budget of their cache as well, mostly sharing their values with it.
+  public static final String GROUP_CACHE_MAX_BYTES = "cache.group.max.bytes";
+  public static final String ROLE_CACHE_MAX_BYTES = "cache.role.max.bytes";
+  public static final String POLICY_CACHE_MAX_BYTES = "cache.policy.max.bytes";
+  // Seconds for which the last successfully loaded roles and policies are still served after their cache entry has
+  // expired, if Sentry is unreachable. Zero turns serving stale values off.
+  public static final String CACHE_STALE_GRACE_SECS = "cache.stale.grace.secs";
+  public static final String CACHE_STALE_GRACE_SECS_DEFAULT = "300";
+  // Backoff of the background probe while Sentry is unreachable, doubled after every failed probe up to the maximum
+  public static final String OUTAGE_PROBE_MIN_BACKOFF_MS = "sentry.outage.probe.min.backoff.ms";
+  public static final String OUTAGE_PROBE_MIN_BACKOFF_MS_DEFAULT = "500";
+  public static final String OUTAGE_PROBE_MAX_BACKOFF_MS = "sentry.outage.probe.max.backoff.ms";
+  public static final String OUTAGE_PROBE_MAX_BACKOFF_MS_DEFAULT = "30000";
+  // Maximum number of entities whose Sentry authorizables are cached for enforce and visibility checks
+  public static final String ENTITY_CACHE_MAX_ENTRIES = "cache.entity.max.entries";
+  public static final String ENTITY_CACHE_MAX_ENTRIES_DEFAULT = "10000";
+  // Number of entities from which visibility checks are split into tasks of a fork-join pool
+  public static final String VISIBILITY_PARALLEL_THRESHOLD = "visibility.parallel.threshold";
+  public static final String VISIBILITY_PARALLEL_THRESHOLD_DEFAULT = "4096";
+  // Parallelism of the fork-join pool for visibility checks, defaults to the number of processors
+  public static final String VISIBILITY_PARALLELISM = "visibility.parallelism";
+  // Resolver of the groups of users: 'mapping' for the group mapping of the Sentry provider, 'file' for a local file
+  // read into memory, or the class name of a GroupResolver
+  public static final String GROUP_RESOLVER = "sentry.group.resolver";
+  public static final String GROUP_RESOLVER_DEFAULT = "mapping";
+  // File with lines 'user = group1, group2' read by the file group resolver
+  public static final String GROUP_RESOLVER_FILE = "sentry.group.resolver.file";
+  // Interval of refreshing the snapshot of groups of all users in the background, zero turns refreshing off
+  public static final String GROUP_RESOLVER_REFRESH_SECS = "sentry.group.resolver.refresh.secs";
+  public static final String GROUP_RESOLVER_REFRESH_SECS_DEFAULT = "60";
+  // Keep a local replica of all roles and privileges instead of caching them per group and role
+  public static final String REPLICA_ENABLED = "sentry.replica.enabled";
+  public static final String REPLICA_ENABLED_DEFAULT = "false";
+  // Interval of polling Sentry for changed roles and group to role mappings in replica mode. Roles and group grants
+  // changed in Sentry other than through this instance take effect within one interval. Every poll is one Sentry call
+  // listing all roles with their groups, whose response grows with the number of roles and group grants, plus one call
+  // per role which is new or whose groups changed.
+  public static final String REPLICA_POLL_INTERVAL_SECS = "sentry.replica.poll.interval.secs";
+  public static final String REPLICA_POLL_INTERVAL_SECS_DEFAULT = "5";
+  // Interval of reloading privileges of all roles in replica mode. Privileges of existing roles changed in Sentry other
+  // than through this instance take effect within one interval. Every resync makes one Sentry call per role, run
+  // concurrently over the client pool, at a random point of the second half of the interval so nodes are staggered.
+  public static final String REPLICA_RESYNC_INTERVAL_SECS = "sentry.replica.resync.interval.secs";
+  public static final String REPLICA_RESYNC_INTERVAL_SECS_DEFAULT = "300";
+  // Policy snapshot file written by SentryAuthorizer#exportPolicySnapshot. If set, roles and privileges are only read
+  // from the snapshot and Sentry is never called, so changes of roles and privileges are rejected.
+  public static final String POLICY_SNAPSHOT_FILE = "sentry.policy.snapshot.file";
+  // Maximum number of Sentry clients kept open and used concurrently
+  public static final String CLIENT_POOL_MAX_SIZE = "sentry.client.pool.max.size";
+  public static final String CLIENT_POOL_MAX_SIZE_DEFAULT = "8";
+  // Idle time after which a pooled Sentry client is closed
+  public static final String CLIENT_POOL_IDLE_TIMEOUT_SECS = "sentry.client.pool.idle.timeout.secs";
+  public static final String CLIENT_POOL_IDLE_TIMEOUT_SECS_DEFAULT = "300";
 
 
   /**
@@ -0,0 +1,74 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exposes the statistics of a Guava {@link Cache}, which must be built with {@code recordStats()}
+ */
+public class CacheMetrics implements CacheMetricsMXBean {
+  private final Cache<?, ?> cache;
+
+  public CacheMetrics(Cache<?, ?> cache) {
+    this.cache = cache;
+  }
+
+  @Override
+  public long getSize() {
+    return cache.size();
+  }
+
+  @Override
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  @Override
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  @Override
+  public double getHitRate() {
+    return cache.stats().hitRate();
+  }
+
+  @Override
+  public long getLoadSuccessCount() {
+    return cache.stats().loadSuccessCount();
+  }
+
+  @Override
+  public long getLoadExceptionCount() {
+    return cache.stats().loadExceptionCount();
+  }
+
+  @Override
+  public double getAverageLoadPenaltyMicros() {
+    CacheStats stats = cache.stats();
+    return stats.averageLoadPenalty() / TimeUnit.MICROSECONDS.toNanos(1);
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return cache.stats().evictionCount();
+  }
+}
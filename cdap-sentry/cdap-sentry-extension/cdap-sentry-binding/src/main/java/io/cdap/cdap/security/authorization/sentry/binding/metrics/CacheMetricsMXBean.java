@@ -0,0 +1,57 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+/**
+ * JMX view of the statistics of a cache of the Sentry binding, load times are in microseconds
+ */
+public interface CacheMetricsMXBean {
+
+  /**
+   * Amount of entries currently in the cache
+   */
+  long getSize();
+
+  long getHitCount();
+
+  long getMissCount();
+
+  /**
+   * Ratio of lookups which were hits, 1.0 if there were no lookups
+   */
+  double getHitRate();
+
+  /**
+   * Amount of successful loads, including background reloads
+   */
+  long getLoadSuccessCount();
+
+  /**
+   * Amount of loads which failed with an exception
+   */
+  long getLoadExceptionCount();
+
+  /**
+   * Average time spent loading a value, including failed loads
+   */
+  double getAverageLoadPenaltyMicros();
+
+  /**
+   * Amount of entries evicted for size or expiry
+   */
+  long getEvictionCount();
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+import io.cdap.cdap.security.authorization.metrics.LatencyHistogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and error counters of one kind of call, the errors are counted by the exception they are
+ * translated to for CDAP
+ */
+public class CommandMetrics implements CommandMetricsMXBean {
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder unauthorizedErrors = new LongAdder();
+  private final LongAdder notFoundErrors = new LongAdder();
+  private final LongAdder alreadyExistsErrors = new LongAdder();
+  private final LongAdder badRequestErrors = new LongAdder();
+  private final LongAdder transportErrors = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+
+  /**
+   * Records latency of a call
+   *
+   * @param startNanos result of {@link System#nanoTime()} taken before the call
+   */
+  public void recordLatency(long startNanos) {
+    latency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+  }
+
+  /**
+   * Counts a failed call, use the more specific methods below in addition for known errors
+   */
+  public void incrementErrors() {
+    errors.increment();
+  }
+
+  public void incrementUnauthorizedErrors() {
+    unauthorizedErrors.increment();
+  }
+
+  public void incrementNotFoundErrors() {
+    notFoundErrors.increment();
+  }
+
+  public void incrementAlreadyExistsErrors() {
+    alreadyExistsErrors.increment();
+  }
+
+  public void incrementBadRequestErrors() {
+    badRequestErrors.increment();
+  }
+
+  public void incrementTransportErrors() {
+    transportErrors.increment();
+  }
+
+  public void incrementRetries() {
+    retries.increment();
+  }
+
+  @Override
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  @Override
+  public long getErrors() {
+    return errors.sum();
+  }
+
+  @Override
+  public long getUnauthorizedErrors() {
+    return unauthorizedErrors.sum();
+  }
+
+  @Override
+  public long getNotFoundErrors() {
+    return notFoundErrors.sum();
+  }
+
+  @Override
+  public long getAlreadyExistsErrors() {
+    return alreadyExistsErrors.sum();
+  }
+
+  @Override
+  public long getBadRequestErrors() {
+    return badRequestErrors.sum();
+  }
+
+  @Override
+  public long getTransportErrors() {
+    return transportErrors.sum();
+  }
+
+  @Override
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  @Override
+  public double getMeanLatencyMicros() {
+    return latency.getMean();
+  }
+
+  @Override
+  public long getMaxLatencyMicros() {
+    return latency.getMax();
+  }
+
+  @Override
+  public long getP50LatencyMicros() {
+    return latency.getPercentile(50);
+  }
+
+  @Override
+  public long getP90LatencyMicros() {
+    return latency.getPercentile(90);
+  }
+
+  @Override
+  public long getP99LatencyMicros() {
+    return latency.getPercentile(99);
+  }
+
+  @Override
+  public long getP999LatencyMicros() {
+    return latency.getPercentile(99.9);
+  }
+}
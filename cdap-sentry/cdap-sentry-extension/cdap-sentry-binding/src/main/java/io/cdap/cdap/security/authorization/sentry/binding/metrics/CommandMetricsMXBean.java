@@ -0,0 +1,75 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+/**
+ * JMX view of {@link CommandMetrics}, latencies are in microseconds
+ */
+public interface CommandMetricsMXBean {
+
+  /**
+   * Amount of completed calls, including failed ones
+   */
+  long getCount();
+
+  /**
+   * Amount of calls failed with any error
+   */
+  long getErrors();
+
+  /**
+   * Amount of calls denied by Sentry, reported as unauthorized
+   */
+  long getUnauthorizedErrors();
+
+  /**
+   * Amount of calls on roles or privileges which do not exist, reported as not found
+   */
+  long getNotFoundErrors();
+
+  /**
+   * Amount of calls creating roles or privileges which exist already, reported as already exists
+   */
+  long getAlreadyExistsErrors();
+
+  /**
+   * Amount of calls rejected for invalid input or API version mismatch, reported as bad request
+   */
+  long getBadRequestErrors();
+
+  /**
+   * Amount of calls failed because Sentry could not be reached
+   */
+  long getTransportErrors();
+
+  /**
+   * Amount of calls retried over a new client after the transport of a pooled client broke
+   */
+  long getRetries();
+
+  double getMeanLatencyMicros();
+
+  long getMaxLatencyMicros();
+
+  long getP50LatencyMicros();
+
+  long getP90LatencyMicros();
+
+  long getP99LatencyMicros();
+
+  long getP999LatencyMicros();
+}
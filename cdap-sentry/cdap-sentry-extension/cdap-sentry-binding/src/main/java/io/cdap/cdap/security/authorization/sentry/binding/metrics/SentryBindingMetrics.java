@@ -0,0 +1,194 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+import com.google.common.cache.Cache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics of the Sentry binding. Every call to Sentry or to the group mapping is exposed as MBean
+ * 'io.cdap.cdap.security.authorization.sentry:type=Command,instance=&lt;instance&gt;,name=&lt;command&gt;' and every
+ * cache as MBean 'io.cdap.cdap.security.authorization.sentry:type=Cache,instance=&lt;instance&gt;,name=&lt;cache&gt;'.
+ * The instance key keeps the MBeans of several bindings in one JVM apart.
+ */
+public class SentryBindingMetrics {
+  private static final Logger LOG = LoggerFactory.getLogger(SentryBindingMetrics.class);
+
+  public static final String DOMAIN = "io.cdap.cdap.security.authorization.sentry";
+
+  private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+  /**
+   * Names of instrumented commands
+   */
+  public static final String GROUP_MAPPING = "group.mapping";
+  public static final String OUTAGE_PROBE = "sentry.outage.probe";
+  public static final String ROLE_FETCH = "sentry.role.fetch";
+  public static final String ROLE_LIST = "sentry.role.list";
+  public static final String ROLE_CREATE = "sentry.role.create";
+  public static final String ROLE_DROP = "sentry.role.drop";
+  public static final String ROLE_GROUPS_ADD = "sentry.role.groups.add";
+  public static final String ROLE_GROUPS_DELETE = "sentry.role.groups.delete";
+  public static final String PRIVILEGE_FETCH = "sentry.privilege.fetch";
+  public static final String PRIVILEGE_GRANT = "sentry.privilege.grant";
+  public static final String PRIVILEGE_REVOKE = "sentry.privilege.revoke";
+  public static final String PRIVILEGE_DROP = "sentry.privilege.drop";
+
+  /**
+   * Names of instrumented caches
+   */
+  public static final String GROUP_CACHE = "group";
+  public static final String ROLE_CACHE = "role";
+  public static final String POLICY_CACHE = "policy";
+
+  private final Map<String, CommandMetrics> commands;
+  private final Map<String, CacheMetrics> caches = new LinkedHashMap<>();
+  private int instance;
+
+  public SentryBindingMetrics() {
+    Map<String, CommandMetrics> map = new LinkedHashMap<>();
+    for (String name : new String[]{GROUP_MAPPING, OUTAGE_PROBE, ROLE_FETCH, ROLE_LIST, ROLE_CREATE, ROLE_DROP,
+      ROLE_GROUPS_ADD, ROLE_GROUPS_DELETE, PRIVILEGE_FETCH, PRIVILEGE_GRANT, PRIVILEGE_REVOKE, PRIVILEGE_DROP}) {
+      map.put(name, new CommandMetrics());
+    }
+    commands = Collections.unmodifiableMap(map);
+  }
+
+  /**
+   * Returns metrics of command
+   *
+   * @param name Name of command, one of constants of this class
+   * @return {@link CommandMetrics}
+   */
+  public CommandMetrics get(String name) {
+    CommandMetrics metrics = commands.get(name);
+    if (metrics == null) {
+      String errorMsg = String.format("Unknown command '%s'", name);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    return metrics;
+  }
+
+  /**
+   * Adds a cache to be exposed on {@link #register()}
+   *
+   * @param name Name of cache, one of constants of this class
+   * @param cache cache built with {@code recordStats()}
+   */
+  public void addCache(String name, Cache<?, ?> cache) {
+    caches.put(name, new CacheMetrics(cache));
+  }
+
+  /**
+   * Returns metrics of cache added before
+   *
+   * @param name Name of cache, one of constants of this class
+   * @return {@link CacheMetrics}
+   */
+  public CacheMetrics getCache(String name) {
+    CacheMetrics metrics = caches.get(name);
+    if (metrics == null) {
+      String errorMsg = String.format("Unknown cache '%s'", name);
+      throw new IllegalArgumentException(errorMsg);
+    }
+    return metrics;
+  }
+
+  /**
+   * Registers MBeans in platform MBean server under an instance key not used by any other registered MBean
+   */
+  public synchronized void register() {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    if (instance == 0) {
+      instance = nextInstance(server);
+    }
+    for (Map.Entry<String, CommandMetrics> entry : commands.entrySet()) {
+      register(server, "Command", entry.getKey(), entry.getValue());
+    }
+    for (Map.Entry<String, CacheMetrics> entry : caches.entrySet()) {
+      register(server, "Cache", entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Unregisters MBeans registered by this instance from platform MBean server
+   */
+  public synchronized void unregister() {
+    if (instance == 0) {
+      return;
+    }
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (String command : commands.keySet()) {
+      unregister(server, "Command", command);
+    }
+    for (String cache : caches.keySet()) {
+      unregister(server, "Cache", cache);
+    }
+  }
+
+  /**
+   * Returns the next instance key without registered MBeans. The counter restarts when the extension is loaded by
+   * a new class loader, so keys still used by MBeans of a previous load are skipped.
+   */
+  private static int nextInstance(MBeanServer server) {
+    while (true) {
+      int next = INSTANCES.incrementAndGet();
+      try {
+        ObjectName pattern = new ObjectName(String.format("%s:instance=%d,*", DOMAIN, next));
+        if (server.queryNames(pattern, null).isEmpty()) {
+          return next;
+        }
+      } catch (JMException e) {
+        LOG.warn("Failed to query metrics MBeans of instance {}", next, e);
+        return next;
+      }
+    }
+  }
+
+  private void register(MBeanServer server, String type, String name, Object bean) {
+    try {
+      server.registerMBean(bean, getObjectName(type, name));
+    } catch (JMException e) {
+      LOG.warn("Failed to register metrics MBean for {} '{}'", type, name, e);
+    }
+  }
+
+  private void unregister(MBeanServer server, String type, String name) {
+    try {
+      ObjectName objectName = getObjectName(type, name);
+      if (server.isRegistered(objectName)) {
+        server.unregisterMBean(objectName);
+      }
+    } catch (JMException e) {
+      LOG.warn("Failed to unregister metrics MBean for {} '{}'", type, name, e);
+    }
+  }
+
+  synchronized ObjectName getObjectName(String type, String name) throws JMException {
+    return new ObjectName(String.format("%s:type=%s,instance=%d,name=%s", DOMAIN, type, instance, name));
+  }
+}
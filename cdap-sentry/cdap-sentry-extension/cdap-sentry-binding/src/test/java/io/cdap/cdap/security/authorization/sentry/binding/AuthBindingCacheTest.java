@@ -0,0 +1,106 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.cdap.cdap.proto.security.Principal;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nullable;
+
+/**
+ * Test for the refresh and expiry of the caches built by {@link AuthBinding#newCacheBuilder}
+ */
+public class AuthBindingCacheTest {
+
+  private static final Principal USER = new Principal("alice", Principal.PrincipalType.USER);
+
+  @Test
+  public void testRefreshWithinTtl() throws Exception {
+    SettableFuture<Set<String>> reload = SettableFuture.create();
+    AtomicInteger loads = new AtomicInteger();
+    LoadingCache<Principal, Set<String>> cache = newCache(2, null, loads, reload);
+
+    Set<String> groups = cache.get(USER);
+    Assert.assertEquals(ImmutableSet.of("group1"), groups);
+
+    // after half the TTL the entry is reloaded in the background, serving the old value meanwhile
+    Thread.sleep(1100);
+    Assert.assertSame(groups, cache.get(USER));
+    reload.set(ImmutableSet.of("group2"));
+    Assert.assertEquals(ImmutableSet.of("group2"), cache.get(USER));
+    Assert.assertEquals(1, loads.get());
+
+    // without an explicit expiry, an entry is never served for longer than the TTL
+    Thread.sleep(2100);
+    Assert.assertEquals(ImmutableSet.of("group1"), cache.get(USER));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  @Test
+  public void testRefreshUntilExpiry() throws Exception {
+    SettableFuture<Set<String>> reload = SettableFuture.create();
+    AtomicInteger loads = new AtomicInteger();
+    LoadingCache<Principal, Set<String>> cache = newCache(1, "3", loads, reload);
+
+    Set<String> groups = cache.get(USER);
+    // with an explicit expiry, the old value is served past the TTL until the reload completes
+    Thread.sleep(2100);
+    Assert.assertSame(groups, cache.get(USER));
+    reload.set(ImmutableSet.of("group2"));
+    Assert.assertEquals(ImmutableSet.of("group2"), cache.get(USER));
+    Assert.assertEquals(1, loads.get());
+
+    // but not past the expiry
+    Thread.sleep(3100);
+    Assert.assertEquals(ImmutableSet.of("group1"), cache.get(USER));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  private static LoadingCache<Principal, Set<String>> newCache(int ttlSecs, @Nullable String expirySecs,
+                                                               final AtomicInteger loads,
+                                                               final ListenableFuture<Set<String>> reload) {
+    return AuthBinding.newCacheBuilder(ttlSecs, expirySecs, 10, CacheWeigher.forGroups(), 0,
+                                       new RemovalListener<Principal, Set<String>>() {
+                                         @Override
+                                         public void onRemoval(RemovalNotification<Principal, Set<String>> n) {
+                                           // no-op
+                                         }
+                                       })
+      .build(new CacheLoader<Principal, Set<String>>() {
+        @Override
+        public Set<String> load(Principal principal) {
+          loads.incrementAndGet();
+          return ImmutableSet.of("group1");
+        }
+
+        @Override
+        public ListenableFuture<Set<String>> reload(Principal principal, Set<String> oldGroups) {
+          return reload;
+        }
+      });
+  }
+}
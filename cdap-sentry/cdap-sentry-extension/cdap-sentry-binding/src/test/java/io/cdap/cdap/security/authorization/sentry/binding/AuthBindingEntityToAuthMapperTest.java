@@ -16,7 +16,10 @@
 
 package io.cdap.cdap.security.authorization.sentry.binding;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 import io.cdap.cdap.proto.ProgramType;
 import io.cdap.cdap.proto.id.ApplicationId;
 import io.cdap.cdap.proto.id.ArtifactId;
@@ -31,6 +34,8 @@ import io.cdap.cdap.proto.id.ProgramId;
 import io.cdap.cdap.proto.id.SecureKeyId;
 import io.cdap.cdap.proto.security.Action;
 import io.cdap.cdap.proto.security.Privilege;
+import io.cdap.cdap.proto.security.Role;
+import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
 import io.cdap.cdap.security.authorization.sentry.model.Application;
 import io.cdap.cdap.security.authorization.sentry.model.Artifact;
 import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
@@ -49,8 +54,10 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 
 import java.net.URL;
+import java.util.EnumSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Test for {@link AuthBinding#toSentryAuthorizables(io.cdap.cdap.proto.security.Authorizable)}. For others please see
@@ -154,6 +161,58 @@ public class AuthBindingEntityToAuthMapperTest {
                         binding.toPrivileges(sentryPrivileges));
   }
 
+  @Test
+  public void testToActionMask() {
+    Assert.assertEquals(0, AuthBinding.toActionMask(EnumSet.noneOf(Action.class)));
+    Assert.assertEquals(ActionFactory.ActionType.READ.getCode() | ActionFactory.ActionType.ADMIN.getCode(),
+                        AuthBinding.toActionMask(EnumSet.of(Action.READ, Action.ADMIN)));
+    Assert.assertEquals(ActionFactory.ActionType.ALL.getCode(),
+                        AuthBinding.toActionMask(EnumSet.of(Action.READ, Action.WRITE, Action.EXECUTE, Action.ADMIN)));
+  }
+
+  @Test
+  public void testCachedEntityAuthorizables() {
+    ApplicationId applicationId = new ApplicationId(NAMESPACE, APPLICATION);
+    ProgramId programId = new ProgramId(NAMESPACE, APPLICATION, ProgramType.WORKER, PROGRAM);
+    DatasetId datasetId = new DatasetId(NAMESPACE, DATASET);
+
+    List<Authorizable> programAuthorizables = binding.getEntityAuthorizables(programId);
+    Assert.assertEquals(binding.toSentryAuthorizables(programId), programAuthorizables);
+    Assert.assertSame(programAuthorizables, binding.getEntityAuthorizables(programId));
+
+    // authorizables of common parents are the same objects
+    List<Authorizable> applicationAuthorizables = binding.getEntityAuthorizables(applicationId);
+    List<Authorizable> datasetAuthorizables = binding.getEntityAuthorizables(datasetId);
+    Assert.assertEquals(binding.toSentryAuthorizables(datasetId), datasetAuthorizables);
+    Assert.assertSame(applicationAuthorizables.get(1), datasetAuthorizables.get(1));
+    Assert.assertSame(applicationAuthorizables.get(2), programAuthorizables.get(2));
+  }
+
+  @Test
+  public void testBatchPrivileges() {
+    ArtifactId artifactId = new ArtifactId(NAMESPACE, ARTIFACT, ARTIFACT_VERSION);
+    ProgramId programId = new ProgramId(NAMESPACE, APPLICATION, ProgramType.WORKER, PROGRAM);
+    Multimap<Role, Privilege> privileges = LinkedHashMultimap.create();
+    for (Action action : EnumSet.of(Action.READ, Action.WRITE, Action.EXECUTE, Action.ADMIN)) {
+      privileges.put(new Role("role1"), new Privilege(artifactId, action));
+    }
+    privileges.put(new Role("role1"), new Privilege(programId, Action.READ));
+    privileges.put(new Role("role2"), new Privilege(programId, Action.EXECUTE));
+
+    // all actions on the artifact are collapsed into one privilege
+    Map<String, List<TSentryPrivilege>> sentryPrivileges = binding.toTSentryPrivileges(privileges);
+    Assert.assertEquals(ImmutableSet.of("role1", "role2"), sentryPrivileges.keySet());
+    Assert.assertEquals(2, sentryPrivileges.get("role1").size());
+    Assert.assertEquals("ALL", sentryPrivileges.get("role1").get(0).getAction());
+    Assert.assertEquals(binding.toTSentryPrivilege(programId, Action.READ), sentryPrivileges.get("role1").get(1));
+    Assert.assertEquals(ImmutableList.of(binding.toTSentryPrivilege(programId, Action.EXECUTE)),
+                        sentryPrivileges.get("role2"));
+
+    // and listed as separate actions again
+    Assert.assertEquals(ImmutableSet.copyOf(privileges.get(new Role("role1"))),
+                        binding.toPrivileges(sentryPrivileges.get("role1")));
+  }
+
   private List<io.cdap.cdap.security.authorization.sentry.model.Authorizable> getAuthorizablesList(
     AuthorizableType authzType) {
     List<io.cdap.cdap.security.authorization.sentry.model.Authorizable> authzList = new LinkedList<>();
@@ -0,0 +1,82 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.cdap.cdap.proto.security.Role;
+import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import io.cdap.cdap.security.authorization.sentry.model.Dataset;
+import io.cdap.cdap.security.authorization.sentry.model.Namespace;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Test for {@link CacheWeigher}
+ */
+public class CacheWeigherTest {
+
+  @Test
+  public void testPolicyWeights() {
+    CacheWeigher<Role, Set<WildcardPolicy>> weigher = CacheWeigher.forPolicies();
+    Set<WildcardPolicy> small = createPolicies(5);
+    Set<WildcardPolicy> large = createPolicies(500);
+    long smallBytes = weigher.estimateBytes(new Role("small"), small);
+    Assert.assertTrue(smallBytes > 0);
+    Assert.assertTrue(weigher.estimateBytes(new Role("large"), large) > 50 * smallBytes);
+
+    // the total follows the entries of a cache bounded by the weights
+    Cache<Role, Set<WildcardPolicy>> cache = CacheBuilder.newBuilder()
+      .concurrencyLevel(1)
+      .maximumWeight(20 * smallBytes)
+      .weigher(weigher)
+      .removalListener(weigher)
+      .build();
+    cache.put(new Role("small"), small);
+    long total = weigher.getTotalWeight();
+    Assert.assertTrue(total > smallBytes);
+    // the large entry is over the budget by itself
+    cache.put(new Role("large"), large);
+    Assert.assertNull(cache.getIfPresent(new Role("large")));
+    Assert.assertEquals(cache.getIfPresent(new Role("small")) == null ? 0 : total, weigher.getTotalWeight());
+    cache.invalidateAll();
+    Assert.assertEquals(0, weigher.getTotalWeight());
+  }
+
+  @Test
+  public void testRoleWeights() {
+    CacheWeigher<String, Set<Role>> weigher = CacheWeigher.forRoles();
+    Assert.assertTrue(weigher.estimateBytes("group", ImmutableSet.of(new Role("role1"), new Role("role2"))) >
+                        weigher.estimateBytes("group", ImmutableSet.of(new Role("role1"))));
+    Assert.assertEquals(0, CacheWeigher.estimateBytes(null));
+  }
+
+  private static Set<WildcardPolicy> createPolicies(int count) {
+    Set<WildcardPolicy> policies = new HashSet<>();
+    for (int i = 0; i < count; i++) {
+      policies.add(new WildcardPolicy(ImmutableList.<Authorizable>of(new Namespace("ns"), new Dataset("dataset" + i)),
+                                      new ActionFactory.Action("read")));
+    }
+    return policies;
+  }
+}
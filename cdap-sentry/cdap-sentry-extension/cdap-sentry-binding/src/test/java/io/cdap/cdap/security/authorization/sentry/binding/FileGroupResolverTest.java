@@ -0,0 +1,109 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.base.Charsets;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Test for {@link FileGroupResolver}
+ */
+public class FileGroupResolverTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMPORARY_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testLoadAndRefresh() throws Exception {
+    File file = TEMPORARY_FOLDER.newFile();
+    Files.write("# users of cdap\n" +
+                  "hulk = admins, avengers\n" +
+                  "\n" +
+                  "ironman=avengers\n" +
+                  "hulk = green\n", file, Charsets.UTF_8);
+
+    MeteredGroupResolver resolver = new MeteredGroupResolver(new FileGroupResolver());
+    try {
+      resolver.initialize(createProperties(file));
+      Assert.assertEquals(ImmutableSet.of("admins", "avengers", "green"), resolver.getGroups("hulk"));
+      Assert.assertEquals(ImmutableSet.of("avengers"), resolver.getGroups("ironman"));
+      Assert.assertTrue(resolver.getGroups("thanos").isEmpty());
+
+      Map<String, Long> metrics = resolver.getMetrics();
+      Assert.assertEquals(3L, (long) metrics.get("lookups"));
+      Assert.assertEquals(0L, (long) metrics.get("failures"));
+      Assert.assertEquals(2L, (long) metrics.get("users"));
+    } finally {
+      resolver.close();
+    }
+  }
+
+  @Test
+  public void testKeepLastGroups() throws Exception {
+    File file = TEMPORARY_FOLDER.newFile();
+    Files.write("hulk = avengers\n", file, Charsets.UTF_8);
+
+    FileGroupResolver resolver = new FileGroupResolver();
+    try {
+      resolver.initialize(createProperties(file));
+      long lastRefreshMillis = resolver.getLastRefreshMillis();
+
+      // an unchanged file is not loaded again
+      resolver.refresh();
+      Assert.assertEquals(lastRefreshMillis, resolver.getLastRefreshMillis());
+
+      Files.write("hulk = avengers, green\nthanos = \n", file, Charsets.UTF_8);
+      Assert.assertTrue(file.setLastModified(file.lastModified() + 2000));
+      resolver.refresh();
+      Assert.assertEquals(ImmutableSet.of("avengers", "green"), resolver.getGroups("hulk"));
+      Assert.assertTrue(resolver.getGroups("thanos").isEmpty());
+      Assert.assertEquals(2, resolver.getUserCount());
+
+      // a broken file keeps the last groups
+      Files.write("no separator\n", file, Charsets.UTF_8);
+      Assert.assertTrue(file.setLastModified(file.lastModified() + 4000));
+      try {
+        resolver.refresh();
+        Assert.fail("Expected refresh to fail for invalid line");
+      } catch (IOException e) {
+        Assert.assertTrue(e.getMessage().contains("line 1"));
+      }
+      Assert.assertEquals(ImmutableSet.of("avengers", "green"), resolver.getGroups("hulk"));
+    } finally {
+      resolver.close();
+    }
+  }
+
+  private static Properties createProperties(File file) {
+    Properties properties = new Properties();
+    properties.setProperty(AuthConf.GROUP_RESOLVER, "file");
+    properties.setProperty(AuthConf.GROUP_RESOLVER_FILE, file.getAbsolutePath());
+    properties.setProperty(AuthConf.GROUP_RESOLVER_REFRESH_SECS, "0");
+    return properties;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
+import io.cdap.cdap.security.authorization.sentry.model.Application;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import io.cdap.cdap.security.authorization.sentry.model.Dataset;
+import io.cdap.cdap.security.authorization.sentry.model.Instance;
+import io.cdap.cdap.security.authorization.sentry.model.Namespace;
+import io.cdap.cdap.security.authorization.sentry.model.Program;
+import io.cdap.cdap.security.authorization.sentry.policy.ModelAuthorizables;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Tests {@link PolicyIndex} with various cases.
+ */
+public class PolicyIndexTest {
+  private static final int READ = ActionFactory.ActionType.READ.getCode();
+  private static final int WRITE = ActionFactory.ActionType.WRITE.getCode();
+  private static final int EXECUTE = ActionFactory.ActionType.EXECUTE.getCode();
+  private static final int ADMIN = ActionFactory.ActionType.ADMIN.getCode();
+
+  @Test
+  public void testEmpty() {
+    PolicyIndex index = PolicyIndex.compile(Collections.singletonList(
+      new WildcardPolicy(Collections.<Authorizable>emptyList(), new ActionFactory.Action("read"))));
+    Assert.assertTrue(index.isEmpty());
+    Assert.assertFalse(index.isAllowed(ImmutableList.of(new Dataset("table")), READ));
+    Assert.assertFalse(isVisible(index, ImmutableList.<Authorizable>of(new Dataset("table"))));
+  }
+
+  @Test
+  public void testActionsFromSeveralPolicies() {
+    PolicyIndex index = PolicyIndex.compile(ImmutableList.of(
+      createPolicy("read", toAuth("namespace", "ns1"), toAuth("dataset", "table")),
+      createPolicy("write", toAuth("namespace", "ns1"), toAuth("dataset", "t*")),
+      createPolicy("admin", toAuth("namespace", "*"), toAuth("dataset", "table"))));
+
+    List<Authorizable> table = ImmutableList.<Authorizable>of(new Namespace("ns1"), new Dataset("table"));
+    Assert.assertTrue(index.isAllowed(table, READ));
+    Assert.assertTrue(index.isAllowed(table, READ | WRITE | ADMIN));
+    Assert.assertFalse(index.isAllowed(table, READ | EXECUTE));
+
+    List<Authorizable> other = ImmutableList.<Authorizable>of(new Namespace("ns2"), new Dataset("table"));
+    Assert.assertTrue(index.isAllowed(other, ADMIN));
+    Assert.assertFalse(index.isAllowed(other, READ));
+
+    // parents are visible, but no action is allowed on them
+    Assert.assertTrue(isVisible(index, ImmutableList.<Authorizable>of(new Namespace("ns3"))));
+    Assert.assertFalse(index.isAllowed(ImmutableList.of(new Namespace("ns1")), READ));
+    Assert.assertFalse(isVisible(index, ImmutableList.<Authorizable>of(new Namespace("ns1"),
+                                                                       new Application("table"))));
+  }
+
+  @Test
+  public void testAllAction() {
+    PolicyIndex index = PolicyIndex.compile(ImmutableList.of(
+      createPolicy("all", toAuth("instance", "cdap"), toAuth("namespace", "ns1"))));
+    List<Authorizable> ns = ImmutableList.<Authorizable>of(new Instance("cdap"), new Namespace("ns1"));
+    Assert.assertTrue(index.isAllowed(ns, READ | WRITE | EXECUTE | ADMIN));
+    Assert.assertFalse(index.isAllowed(ImmutableList.of(new Instance("cdap"), new Namespace("ns2")), READ));
+  }
+
+  @Test
+  public void testProgramSubType() {
+    PolicyIndex index = PolicyIndex.compile(ImmutableList.of(
+      createPolicy("execute", toAuth("namespace", "ns1"), toAuth("application", "app1"),
+                   toAuth("program", "worker.worker1")),
+      createPolicy("read", toAuth("namespace", "ns1"), toAuth("application", "app1"),
+                   toAuth("program", "service.*"))));
+
+    Assert.assertTrue(index.isAllowed(ImmutableList.of(new Namespace("ns1"), new Application("app1"),
+                                                       new Program("Worker.worker1")), EXECUTE));
+    Assert.assertFalse(index.isAllowed(ImmutableList.of(new Namespace("ns1"), new Application("app1"),
+                                                        new Program("service.worker1")), EXECUTE));
+    Assert.assertTrue(index.isAllowed(ImmutableList.of(new Namespace("ns1"), new Application("app1"),
+                                                       new Program("service.service1")), READ));
+    Assert.assertFalse(index.isAllowed(ImmutableList.of(new Namespace("ns1"), new Application("app1"),
+                                                        new Program("worker.service1")), READ));
+  }
+
+  @Test
+  public void testSameAsPolicies() {
+    List<WildcardPolicy> policies = new ArrayList<>();
+    String[] actions = {"read", "write", "execute", "admin"};
+    for (int ns = 0; ns < 20; ns++) {
+      for (int app = 0; app < 10; app++) {
+        policies.add(createPolicy(actions[(ns + app) % actions.length], toAuth("namespace", "ns" + ns),
+                                  toAuth("application", "app" + app)));
+      }
+      policies.add(createPolicy(actions[ns % actions.length], toAuth("namespace", "ns" + ns),
+                                toAuth("dataset", "ds?")));
+    }
+    policies.add(createPolicy("read", toAuth("namespace", "ns1*"), toAuth("application", "*")));
+    PolicyIndex index = PolicyIndex.compile(policies);
+    PolicyIndex.VisibilityCheck visibilityCheck = index.newVisibilityCheck();
+
+    for (int ns = 0; ns < 25; ns++) {
+      for (int name = 0; name < 12; name++) {
+        List<List<Authorizable>> entities = ImmutableList.<List<Authorizable>>of(
+          ImmutableList.<Authorizable>of(new Namespace("ns" + ns)),
+          ImmutableList.<Authorizable>of(new Namespace("ns" + ns), new Application("app" + name)),
+          ImmutableList.<Authorizable>of(new Namespace("ns" + ns), new Dataset("ds" + name)));
+        for (List<Authorizable> entity : entities) {
+          boolean visible = false;
+          for (WildcardPolicy policy : policies) {
+            visible |= policy.isVisible(entity);
+          }
+          Assert.assertEquals(entity.toString(), visible, isVisible(visibilityCheck, entity));
+
+          for (String action : actions) {
+            ActionFactory.Action sentryAction = new ActionFactory.Action(action);
+            boolean allowed = false;
+            for (WildcardPolicy policy : policies) {
+              allowed |= policy.isAllowed(entity, sentryAction);
+            }
+            Assert.assertEquals(entity + " " + action, allowed,
+                                index.isAllowed(entity, sentryAction.getActionCode()));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testVisibilityCheckOfSiblings() {
+    List<WildcardPolicy> policies = ImmutableList.of(
+      createPolicy("read", toAuth("instance", "cdap"), toAuth("namespace", "ns*"), toAuth("dataset", "ds1*")),
+      createPolicy("read", toAuth("instance", "cdap"), toAuth("namespace", "ns1"), toAuth("dataset", "other")));
+    PolicyIndex.VisibilityCheck check = PolicyIndex.compile(policies).newVisibilityCheck();
+
+    Assert.assertTrue(check.matchParent(Collections.<Authorizable>emptyList()).isVisible(new Instance("cdap")));
+    Assert.assertFalse(check.matchParent(ImmutableList.of(new Instance("other"))).isVisible(new Namespace("ns1")));
+
+    // siblings only match their own authorizable against the matched parent
+    List<Authorizable> ns1 = ImmutableList.<Authorizable>of(new Instance("cdap"), new Namespace("ns1"));
+    List<Authorizable> ns2 = ImmutableList.<Authorizable>of(new Instance("cdap"), new Namespace("ns2"));
+    PolicyIndex.ParentMatch ns1Match = check.matchParent(ns1);
+    PolicyIndex.ParentMatch ns2Match = check.matchParent(ns2);
+    for (int i = 0; i < 100; i++) {
+      Dataset dataset = new Dataset("ds" + i);
+      Assert.assertEquals(isVisible(policies, ns1, dataset), ns1Match.isVisible(dataset));
+      Assert.assertEquals(isVisible(policies, ns2, dataset), ns2Match.isVisible(dataset));
+    }
+    Assert.assertTrue(ns1Match.isVisible(new Dataset("other")));
+    Assert.assertFalse(ns2Match.isVisible(new Dataset("other")));
+  }
+
+  /**
+   * Checks visibility of an entity the way {@link VisibilityResolver} does, entities without authorizables are never
+   * visible
+   */
+  private static boolean isVisible(PolicyIndex.VisibilityCheck check, List<Authorizable> entity) {
+    int size = entity.size();
+    return size > 0 && check.matchParent(entity.subList(0, size - 1)).isVisible(entity.get(size - 1));
+  }
+
+  private static boolean isVisible(PolicyIndex index, List<Authorizable> entity) {
+    return isVisible(index.newVisibilityCheck(), entity);
+  }
+
+  private static boolean isVisible(List<WildcardPolicy> policies, List<Authorizable> parent, Authorizable last) {
+    List<Authorizable> entity = new ArrayList<>(parent);
+    entity.add(last);
+    for (WildcardPolicy policy : policies) {
+      if (policy.isVisible(entity)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static Authorizable toAuth(String type, String name) {
+    return ModelAuthorizables.from(type, name);
+  }
+
+  private static WildcardPolicy createPolicy(String action, Authorizable... authorizables) {
+    return new WildcardPolicy(Lists.newArrayList(authorizables), new ActionFactory.Action(action));
+  }
+}
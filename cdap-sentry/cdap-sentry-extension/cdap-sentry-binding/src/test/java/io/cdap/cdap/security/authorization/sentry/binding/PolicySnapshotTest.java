@@ -0,0 +1,101 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.cdap.cdap.proto.security.Role;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.junit.Assert;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Test for {@link PolicySnapshot}
+ */
+public class PolicySnapshotTest {
+
+  @ClassRule
+  public static final TemporaryFolder TEMPORARY_FOLDER = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndRead() throws Exception {
+    Map<String, Set<String>> roleGroups = ImmutableMap.<String, Set<String>>of(
+      "readers", ImmutableSet.of("group1", "group2"),
+      "writers", ImmutableSet.of("group2"),
+      "nobody", ImmutableSet.<String>of());
+    Map<String, Set<TSentryPrivilege>> rolePrivileges = ImmutableMap.<String, Set<TSentryPrivilege>>of(
+      "readers", ImmutableSet.of(createPrivilege("ns1", "read"), createPrivilege("ns2", "read")),
+      "writers", ImmutableSet.of(createPrivilege("ns1", "write")));
+
+    File file = new File(TEMPORARY_FOLDER.newFolder(), "policies.snapshot");
+    PolicySnapshot.write(file, roleGroups, rolePrivileges);
+    PolicySnapshot snapshot = PolicySnapshot.read(file);
+    Assert.assertEquals(roleGroups, snapshot.listRoleGroups());
+    Assert.assertEquals(rolePrivileges.get("readers"), snapshot.listPrivileges("readers"));
+    Assert.assertEquals(rolePrivileges.get("writers"), snapshot.listPrivileges("writers"));
+    Assert.assertTrue(snapshot.listPrivileges("nobody").isEmpty());
+
+    // a replica evaluates the snapshot without polling
+    SentryPolicyReplica replica = new SentryPolicyReplica(snapshot, MoreExecutors.sameThreadExecutor(), 0, 0);
+    try {
+      replica.start();
+      Assert.assertEquals(ImmutableSet.of(new Role("readers"), new Role("writers")), replica.getRoles("group2"));
+      Assert.assertEquals(2, replica.getPolicies(new Role("readers")).size());
+    } finally {
+      replica.close();
+    }
+
+    // writing again replaces the snapshot
+    PolicySnapshot.write(file, ImmutableMap.of("writers", roleGroups.get("writers")), rolePrivileges);
+    Assert.assertEquals(ImmutableSet.of("writers"), PolicySnapshot.read(file).listRoleGroups().keySet());
+  }
+
+  @Test
+  public void testCorruptSnapshot() throws Exception {
+    File file = new File(TEMPORARY_FOLDER.newFolder(), "policies.snapshot");
+    PolicySnapshot.write(file, ImmutableMap.<String, Set<String>>of("readers", ImmutableSet.of("group1")),
+                         ImmutableMap.<String, Set<TSentryPrivilege>>of(
+                           "readers", ImmutableSet.of(createPrivilege("ns1", "read"))));
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+      randomAccessFile.setLength(randomAccessFile.length() - 4);
+    }
+    try {
+      PolicySnapshot.read(file);
+      Assert.fail("Expected a truncated snapshot to be rejected");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage().contains("truncated"));
+    }
+  }
+
+  private static TSentryPrivilege createPrivilege(String namespace, String action) {
+    return new TSentryPrivilege("cdap", "cdap", ImmutableList.of(
+      new TAuthorizable(Authorizable.AuthorizableType.INSTANCE.name(), "cdap"),
+      new TAuthorizable(Authorizable.AuthorizableType.NAMESPACE.name(), namespace)), action);
+  }
+}
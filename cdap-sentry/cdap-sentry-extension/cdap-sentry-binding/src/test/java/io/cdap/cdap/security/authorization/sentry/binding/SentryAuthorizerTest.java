@@ -47,6 +47,7 @@ import io.cdap.cdap.proto.security.Privilege;
 import io.cdap.cdap.proto.security.Role;
 import io.cdap.cdap.security.authorization.sentry.binding.conf.AuthConf;
 import io.cdap.cdap.security.spi.authorization.AuthorizationContext;
+import io.cdap.cdap.security.spi.authorization.BadRequestException;
 import io.cdap.cdap.security.spi.authorization.UnauthorizedException;
 import org.apache.hadoop.conf.Configuration;
 import org.junit.AfterClass;
@@ -81,6 +82,7 @@ public class SentryAuthorizerTest {
 
   private static SentryAuthorizer authorizer;
   private static TestSentryService sentryService;
+  private static File sentrySite;
 
   @BeforeClass
   public static void setupTests() throws Exception {
@@ -90,7 +92,7 @@ public class SentryAuthorizerTest {
     sentryService.start();
 
     Configuration clientConfig = sentryService.getClientConfig();
-    File sentrySite = TEMPORARY_FOLDER.newFile("sentry-site.xml");
+    sentrySite = TEMPORARY_FOLDER.newFile("sentry-site.xml");
     clientConfig.writeXml(new FileOutputStream(sentrySite));
 
     final Properties properties = new Properties();
@@ -295,6 +297,19 @@ public class SentryAuthorizerTest {
                      ImmutableSet.of(Action.READ, Action.WRITE));
   }
 
+  @Test
+  public void testMultiGroupUser() throws Exception {
+    // roles of both groups of the user are loaded together, admin2 is admin of ns2 and readers2 can read dataset1
+    Principal user = getUser("multi_group_user");
+    assertAuthorized(new NamespaceId("ns2"), user, Action.ADMIN);
+    assertAuthorized(new DatasetId("ns2", "dataset1"), user, Action.READ);
+    assertAuthorized(new KerberosPrincipalId("bobby"), user, Action.ADMIN);
+
+    assertUnauthorized(new DatasetId("ns2", "dataset1"), user, ImmutableSet.of(Action.READ, Action.WRITE));
+    assertUnauthorized(new NamespaceId("ns1"), user, Action.ADMIN);
+    assertUnauthorized(new DatasetId("ns1", "dataset1"), user, Action.READ);
+  }
+
   @Test
   public void testListPrivileges() throws Exception {
     Set<Privilege> privileges = authorizer.listPrivileges(getUser("ns3_user1"));
@@ -312,6 +327,25 @@ public class SentryAuthorizerTest {
     Assert.assertTrue(privileges.containsAll(expectedPrivileges));
   }
 
+  @Test
+  public void testListPrivilegesOfManyRoles() throws Exception {
+    // the privileges of the six roles of readers1 are fetched concurrently, one read privilege per role
+    Set<Privilege> privileges = authorizer.listPrivileges(getUser("readers1"));
+    Assert.assertEquals(6, privileges.size());
+    Assert.assertTrue(privileges.containsAll(ImmutableSet.of(
+      new Privilege(Authorizable.fromString("namespace:ns1"), Action.READ),
+      new Privilege(Authorizable.fromString("artifact:ns1.art"), Action.READ),
+      new Privilege(Authorizable.fromString("dataset:ns1.dataset1"), Action.READ),
+      new Privilege(Authorizable.fromString("dataset:ns1.ds1"), Action.READ),
+      new Privilege(Authorizable.fromString("application:ns1.app1"), Action.READ))));
+
+    // privileges of roles from different groups are merged
+    privileges = authorizer.listPrivileges(getUser("multi_group_user"));
+    Assert.assertTrue(privileges.containsAll(ImmutableSet.of(
+      new Privilege(Authorizable.fromString("namespace:ns2"), Action.ADMIN),
+      new Privilege(Authorizable.fromString("dataset:ns2.dataset1"), Action.READ))));
+  }
+
   @Test
   public void testUnauthorized() throws Exception {
     // do some invalid operations
@@ -530,6 +564,70 @@ public class SentryAuthorizerTest {
     authorizer.dropRole(execRole);
   }
 
+  @Test
+  public void testPolicyIndexInvalidation() throws Exception {
+    AuthBinding binding = new AuthBinding(sentrySite.getAbsolutePath(), "cdap", "cdap", 1, 100);
+    Role role = new Role("index-role");
+    try {
+      binding.createRole(role, TestSentryService.ADMIN_USER);
+      binding.addRoleToGroup(role, new Principal("index_group", Principal.PrincipalType.GROUP),
+                             TestSentryService.ADMIN_USER);
+      Principal user = getUser("index_user");
+      DatasetId dataset = new DatasetId("ns4", "ds1");
+      int readMask = AuthBinding.toActionMask(Collections.singleton(Action.READ));
+
+      PolicyIndex index = binding.getPolicyIndex(user);
+      Assert.assertFalse(index.isAllowed(binding.getEntityAuthorizables(dataset), readMask));
+      // nothing changed, so the compiled policies are reused
+      Assert.assertSame(index, binding.getPolicyIndex(user));
+
+      // once the policies of the role are reloaded with the new privilege, the compiled policies are invalidated
+      binding.grant(Authorizable.fromEntityId(dataset), role, Collections.singleton(Action.READ),
+                    TestSentryService.ADMIN_USER);
+      long deadline = System.currentTimeMillis() + 10000;
+      while (!binding.getPolicyIndex(user).isAllowed(binding.getEntityAuthorizables(dataset), readMask)) {
+        Assert.assertTrue("Compiled policies were not invalidated", System.currentTimeMillis() < deadline);
+        Thread.sleep(100);
+      }
+    } finally {
+      binding.dropRole(role, TestSentryService.ADMIN_USER);
+      binding.close();
+    }
+  }
+
+  @Test
+  public void testOfflineSnapshot() throws Exception {
+    File snapshot = new File(TEMPORARY_FOLDER.newFolder(), "policies.snapshot");
+    authorizer.exportPolicySnapshot(snapshot);
+    Properties properties = new Properties();
+    properties.setProperty(AuthConf.POLICY_SNAPSHOT_FILE, snapshot.getAbsolutePath());
+    AuthBinding binding = new AuthBinding(sentrySite.getAbsolutePath(), "cdap", "cdap", CACHE_TTL_SECS, 100,
+                                          properties);
+    try {
+      // reads are answered from the snapshot
+      Assert.assertEquals(authorizer.listAllRoles(), binding.listAllRoles());
+      Assert.assertEquals(authorizer.listPrivileges(getUser("readers1")),
+                          binding.listPrivileges(getUser("readers1")));
+
+      // changes are rejected
+      try {
+        binding.createRole(new Role("offline-role"), TestSentryService.ADMIN_USER);
+        Assert.fail("Creating a role should fail while evaluating a policy snapshot");
+      } catch (BadRequestException expected) {
+        // expected
+      }
+      try {
+        binding.grant(Authorizable.fromString("namespace:ns1"), new Role("readers_ns1"),
+                      Collections.singleton(Action.WRITE), TestSentryService.ADMIN_USER);
+        Assert.fail("Granting a privilege should fail while evaluating a policy snapshot");
+      } catch (BadRequestException expected) {
+        // expected
+      }
+    } finally {
+      binding.close();
+    }
+  }
+
   private void testAuthorized(EntityId entityId) throws Exception {
     // admin1 is admin of entity
     assertAuthorized(entityId, getUser("admin1"), Action.ADMIN);
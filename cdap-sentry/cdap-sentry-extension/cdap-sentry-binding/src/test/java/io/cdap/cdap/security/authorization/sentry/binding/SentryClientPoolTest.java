@@ -0,0 +1,131 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import org.apache.sentry.SentryUserException;
+import org.apache.sentry.provider.db.generic.service.thrift.SentryGenericServiceClient;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link SentryClientPool}
+ */
+public class SentryClientPoolTest {
+
+  @Test
+  public void testReuse() throws Exception {
+    CountingFactory factory = new CountingFactory();
+    try (SentryClientPool pool = new SentryClientPool(factory, 2, TimeUnit.MINUTES.toMillis(1))) {
+      SentryClientPool.PooledClient client = pool.borrow();
+      Assert.assertFalse(client.isReused());
+      pool.release(client);
+
+      SentryClientPool.PooledClient reused = pool.borrow();
+      Assert.assertSame(client, reused);
+      Assert.assertTrue(reused.isReused());
+      pool.release(reused);
+
+      Assert.assertEquals(1, factory.created.get());
+      Assert.assertEquals(0, factory.closed.get());
+    }
+    Assert.assertEquals(1, factory.closed.get());
+  }
+
+  @Test
+  public void testInvalidate() throws Exception {
+    CountingFactory factory = new CountingFactory();
+    try (SentryClientPool pool = new SentryClientPool(factory, 1, TimeUnit.MINUTES.toMillis(1))) {
+      SentryClientPool.PooledClient client = pool.borrow();
+      pool.invalidate(client);
+      Assert.assertEquals(1, factory.closed.get());
+      Assert.assertEquals(0, pool.getIdleCount());
+
+      // the permit of the invalidated client must be available again
+      SentryClientPool.PooledClient newClient = pool.borrow();
+      Assert.assertNotSame(client, newClient);
+      pool.release(newClient);
+      Assert.assertEquals(2, factory.created.get());
+    }
+  }
+
+  @Test
+  public void testIdleEviction() throws Exception {
+    CountingFactory factory = new CountingFactory();
+    try (SentryClientPool pool = new SentryClientPool(factory, 2, 50)) {
+      SentryClientPool.PooledClient first = pool.borrow();
+      SentryClientPool.PooledClient second = pool.borrow();
+      pool.release(first);
+      pool.release(second);
+      Assert.assertEquals(2, pool.getIdleCount());
+
+      TimeUnit.MILLISECONDS.sleep(100);
+      pool.evictIdle();
+      Assert.assertEquals(0, pool.getIdleCount());
+      Assert.assertEquals(2, factory.closed.get());
+
+      // expired clients are not handed out on borrow either
+      SentryClientPool.PooledClient client = pool.borrow();
+      pool.release(client);
+      TimeUnit.MILLISECONDS.sleep(100);
+      Assert.assertNotSame(client, pool.borrow());
+      Assert.assertEquals(3, factory.closed.get());
+    }
+  }
+
+  @Test
+  public void testFailureClassification() {
+    SentryUserException transportFailure = new SentryUserException("Thrift exception occurred",
+                                                                   new TTransportException("Broken pipe"));
+    Assert.assertTrue(SentryClientPool.isTransportFailure(transportFailure));
+    Assert.assertTrue(SentryClientPool.isConnectionFailure(transportFailure));
+
+    SentryUserException userFailure = new SentryUserException("Access denied");
+    Assert.assertFalse(SentryClientPool.isTransportFailure(userFailure));
+    Assert.assertFalse(SentryClientPool.isConnectionFailure(userFailure));
+  }
+
+  /**
+   * Creates proxies of {@link SentryGenericServiceClient} counting created and closed clients
+   */
+  private static final class CountingFactory implements SentryClientPool.ClientFactory {
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicInteger closed = new AtomicInteger();
+
+    @Override
+    public SentryGenericServiceClient create() {
+      created.incrementAndGet();
+      return (SentryGenericServiceClient) Proxy.newProxyInstance(
+        SentryGenericServiceClient.class.getClassLoader(), new Class<?>[] { SentryGenericServiceClient.class },
+        new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) {
+            if ("close".equals(method.getName())) {
+              closed.incrementAndGet();
+            }
+            return null;
+          }
+        });
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import org.apache.sentry.SentryUserException;
+import org.apache.thrift.transport.TTransportException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link SentryOutageTracker}
+ */
+public class SentryOutageTrackerTest {
+
+  @Test
+  public void testOutage() throws Exception {
+    final AtomicInteger probes = new AtomicInteger();
+    SentryOutageTracker tracker = new SentryOutageTracker(new SentryOutageTracker.Probe() {
+      @Override
+      public void run() throws Exception {
+        // Sentry comes back on the third probe
+        if (probes.incrementAndGet() < 3) {
+          throw new SentryUserException("Thrift exception occurred", new TTransportException("Connection refused"));
+        }
+      }
+    }, 10, 1000);
+    try {
+      // failures reported by Sentry itself don't start an outage
+      tracker.failed(new SentryUserException("Access denied"));
+      Assert.assertTrue(tracker.isAvailable());
+      tracker.checkAvailable();
+
+      tracker.failed(new SentryUserException("Thrift exception occurred", new TTransportException("Broken pipe")));
+      Assert.assertFalse(tracker.isAvailable());
+      try {
+        tracker.checkAvailable();
+        Assert.fail("Expected Sentry to be unavailable");
+      } catch (IOException e) {
+        Assert.assertTrue(SentryClientPool.isTransportFailure(e));
+      }
+
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (!tracker.isAvailable() && System.currentTimeMillis() < deadline) {
+        TimeUnit.MILLISECONDS.sleep(10);
+      }
+      Assert.assertTrue(tracker.isAvailable());
+      Assert.assertEquals(3, probes.get());
+      Assert.assertEquals(40, tracker.getBackoffMillis());
+    } finally {
+      tracker.close();
+    }
+  }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.cdap.cdap.proto.security.Role;
+import io.cdap.cdap.security.authorization.sentry.model.Authorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test for {@link SentryPolicyReplica}
+ */
+public class SentryPolicyReplicaTest {
+
+  @Test
+  public void testLoadAndRefresh() throws Exception {
+    InMemorySource source = new InMemorySource();
+    source.addRole("readers", "group1", "group2");
+    source.addRole("writers", "group2");
+    source.grant("readers", "ns1", "read");
+    source.grant("writers", "ns1", "write");
+
+    SentryPolicyReplica replica = new SentryPolicyReplica(source, MoreExecutors.sameThreadExecutor(), 60000, 600000);
+    try {
+      replica.start();
+      Assert.assertEquals(ImmutableSet.of(new Role("readers")), replica.getRoles("group1"));
+      Assert.assertEquals(ImmutableSet.of(new Role("readers"), new Role("writers")), replica.getRoles("group2"));
+      Assert.assertTrue(replica.getRoles("group3").isEmpty());
+      Assert.assertEquals(1, replica.getPolicies(new Role("readers")).size());
+
+      Set<Role> group1Roles = replica.getRoles("group1");
+      Set<WildcardPolicy> readerPolicies = replica.getPolicies(new Role("readers"));
+
+      // a new role is picked up by polling the roles, the unchanged ones stay the same objects
+      source.addRole("admins", "group3");
+      source.grant("admins", "ns1", "admin");
+      int privilegeCalls = source.privilegeCalls.get();
+      replica.refreshRoleGroups();
+      Assert.assertEquals(ImmutableSet.of(new Role("admins")), replica.getRoles("group3"));
+      Assert.assertEquals(1, replica.getPolicies(new Role("admins")).size());
+      Assert.assertEquals(privilegeCalls + 1, source.privilegeCalls.get());
+      Assert.assertSame(group1Roles, replica.getRoles("group1"));
+      Assert.assertSame(readerPolicies, replica.getPolicies(new Role("readers")));
+
+      // refreshing the role groups only picks up privileges of existing roles when the role is refreshed
+      source.grant("readers", "ns2", "read");
+      replica.refreshRoleGroups();
+      Assert.assertSame(readerPolicies, replica.getPolicies(new Role("readers")));
+      replica.refreshRoles(Collections.singleton("READERS"));
+      Assert.assertEquals(2, replica.getPolicies(new Role("readers")).size());
+
+      // or when the groups of the role changed
+      source.grant("readers", "ns3", "read");
+      source.addRole("readers", "group1", "group2", "group3");
+      privilegeCalls = source.privilegeCalls.get();
+      replica.refreshRoleGroups();
+      Assert.assertEquals(ImmutableSet.of(new Role("readers"), new Role("admins")), replica.getRoles("group3"));
+      Assert.assertEquals(3, replica.getPolicies(new Role("readers")).size());
+      Assert.assertEquals(privilegeCalls + 1, source.privilegeCalls.get());
+
+      // dropped roles are removed with their privileges
+      source.roleGroups.remove("writers");
+      replica.refreshRoleGroups();
+      Assert.assertEquals(ImmutableSet.of(new Role("readers")), replica.getRoles("group2"));
+      Assert.assertTrue(replica.getPolicies(new Role("writers")).isEmpty());
+      Assert.assertFalse(replica.getPrivilegesOn(toTAuthorizables("ns1")).containsKey("writers"));
+    } finally {
+      replica.close();
+    }
+  }
+
+  @Test
+  public void testResync() throws Exception {
+    InMemorySource source = new InMemorySource();
+    source.addRole("readers", "group1");
+    source.grant("readers", "ns1", "read");
+
+    SentryPolicyReplica replica = new SentryPolicyReplica(source, MoreExecutors.sameThreadExecutor(), 60000, 600000);
+    try {
+      replica.start();
+      Set<WildcardPolicy> policies = replica.getPolicies(new Role("readers"));
+
+      replica.resync();
+      Assert.assertSame(policies, replica.getPolicies(new Role("readers")));
+
+      source.grant("readers", "ns2", "read");
+      replica.resync();
+      Assert.assertEquals(2, replica.getPolicies(new Role("readers")).size());
+    } finally {
+      replica.close();
+    }
+  }
+
+  @Test
+  public void testPoll() throws Exception {
+    InMemorySource source = new InMemorySource();
+    source.addRole("readers", "group1");
+    source.grant("readers", "ns1", "read");
+
+    SentryPolicyReplica replica = new SentryPolicyReplica(source, MoreExecutors.sameThreadExecutor(), 50, 600000);
+    try {
+      replica.start();
+      long version = replica.getVersion();
+
+      // a new role is picked up by the next poll, without fetching privileges of the unchanged roles
+      source.addRole("writers", "group2");
+      source.grant("writers", "ns1", "write");
+      int privilegeCalls = source.privilegeCalls.get();
+      long deadline = System.currentTimeMillis() + 10000;
+      while (replica.getPolicies(new Role("writers")).isEmpty()) {
+        Assert.assertTrue("Roles were not polled", System.currentTimeMillis() < deadline);
+        TimeUnit.MILLISECONDS.sleep(50);
+      }
+      Assert.assertEquals(ImmutableSet.of(new Role("writers")), replica.getRoles("group2"));
+      Assert.assertTrue(replica.getVersion() > version);
+      TimeUnit.MILLISECONDS.sleep(200);
+      Assert.assertEquals(privilegeCalls + 1, source.privilegeCalls.get());
+    } finally {
+      replica.close();
+    }
+  }
+
+  @Test
+  public void testPeriodicResync() throws Exception {
+    InMemorySource source = new InMemorySource();
+    source.addRole("readers", "group1");
+    source.grant("readers", "ns1", "read");
+
+    SentryPolicyReplica replica = new SentryPolicyReplica(source, MoreExecutors.sameThreadExecutor(), 50, 200);
+    try {
+      replica.start();
+      Set<WildcardPolicy> policies = replica.getPolicies(new Role("readers"));
+
+      // privileges granted to an existing role in Sentry are picked up by the periodic resync
+      source.grant("readers", "ns2", "read");
+      long deadline = System.currentTimeMillis() + 10000;
+      while (replica.getPolicies(new Role("readers")).size() < 2) {
+        Assert.assertTrue("Privileges were not resynced", System.currentTimeMillis() < deadline);
+        TimeUnit.MILLISECONDS.sleep(50);
+      }
+      Assert.assertNotSame(policies, replica.getPolicies(new Role("readers")));
+    } finally {
+      replica.close();
+    }
+  }
+
+  @Test
+  public void testPrivilegesOnAuthorizables() throws Exception {
+    InMemorySource source = new InMemorySource();
+    source.addRole("readers", "group1");
+    source.addRole("writers", "group2");
+    source.grant("readers", "ns1", "read");
+    source.grant("readers", "ns2", "read");
+    source.grant("writers", "ns1", "write");
+
+    SentryPolicyReplica replica = new SentryPolicyReplica(source, MoreExecutors.sameThreadExecutor(), 60000, 600000);
+    try {
+      replica.start();
+      Map<String, Set<TSentryPrivilege>> ns1Privileges = replica.getPrivilegesOn(toTAuthorizables("ns1"));
+      Assert.assertEquals(ImmutableSet.of("readers", "writers"), ns1Privileges.keySet());
+      Assert.assertEquals("read", ns1Privileges.get("readers").iterator().next().getAction());
+      Assert.assertEquals(1, ns1Privileges.get("readers").size());
+      Assert.assertEquals(ImmutableSet.of("readers"), replica.getPrivilegesOn(toTAuthorizables("ns2")).keySet());
+      Assert.assertTrue(replica.getPrivilegesOn(toTAuthorizables("ns3")).isEmpty());
+
+      // the index follows revoked privileges and dropped roles
+      source.privileges.put("readers", source.listPrivileges("writers"));
+      replica.refreshRoles(Collections.singleton("readers"));
+      Assert.assertTrue(replica.getPrivilegesOn(toTAuthorizables("ns2")).isEmpty());
+      source.roleGroups.remove("writers");
+      replica.refreshRoleGroups();
+      Assert.assertEquals(ImmutableSet.of("readers"), replica.getPrivilegesOn(toTAuthorizables("ns1")).keySet());
+    } finally {
+      replica.close();
+    }
+  }
+
+  private static List<TAuthorizable> toTAuthorizables(String namespace) {
+    return ImmutableList.of(new TAuthorizable(Authorizable.AuthorizableType.INSTANCE.name(), "cdap"),
+                            new TAuthorizable(Authorizable.AuthorizableType.NAMESPACE.name(), namespace));
+  }
+
+  /**
+   * {@link SentryPolicyReplica.Source} backed by maps
+   */
+  private static final class InMemorySource implements SentryPolicyReplica.Source {
+    private final Map<String, Set<String>> roleGroups = new ConcurrentHashMap<>();
+    private final Map<String, Set<TSentryPrivilege>> privileges = new ConcurrentHashMap<>();
+    private final AtomicInteger privilegeCalls = new AtomicInteger();
+
+    void addRole(String role, String... groups) {
+      roleGroups.put(role, ImmutableSet.copyOf(groups));
+    }
+
+    void grant(String role, String namespace, String action) {
+      Set<TSentryPrivilege> rolePrivileges = new HashSet<>();
+      if (privileges.containsKey(role)) {
+        rolePrivileges.addAll(privileges.get(role));
+      }
+      rolePrivileges.add(new TSentryPrivilege("cdap", "cdap", toTAuthorizables(namespace), action));
+      privileges.put(role, rolePrivileges);
+    }
+
+    @Override
+    public Map<String, Set<String>> listRoleGroups() {
+      return new HashMap<>(roleGroups);
+    }
+
+    @Override
+    public Set<TSentryPrivilege> listPrivileges(String role) {
+      privilegeCalls.incrementAndGet();
+      Set<TSentryPrivilege> rolePrivileges = privileges.get(role);
+      return rolePrivileges == null ? Collections.<TSentryPrivilege>emptySet() : new HashSet<>(rolePrivileges);
+    }
+  }
+}
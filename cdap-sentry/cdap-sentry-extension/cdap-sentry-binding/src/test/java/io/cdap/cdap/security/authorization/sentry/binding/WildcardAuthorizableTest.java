@@ -126,6 +126,34 @@ public class WildcardAuthorizableTest {
     Assert.assertFalse(dsAuth.matches(new Dataset(null)));
   }
 
+  @Test
+  public void testSuffixAuthorizable() {
+    WildcardAuthorizable dsAuth = new WildcardAuthorizable(toAuth("dataset", "*_table"));
+    Assert.assertTrue(dsAuth.matches(new Dataset("_table")));
+    Assert.assertTrue(dsAuth.matches(new Dataset("my_table")));
+
+    Assert.assertFalse(dsAuth.matches(new Dataset("my_tables")));
+    Assert.assertFalse(dsAuth.matches(new Dataset("table")));
+    Assert.assertFalse(dsAuth.matches(new Application("my_table")));
+  }
+
+  @Test
+  public void testGlobAuthorizable() {
+    WildcardAuthorizable dsAuth = new WildcardAuthorizable(toAuth("dataset", "a*b?c*"));
+    Assert.assertTrue(dsAuth.matches(new Dataset("abxc")));
+    Assert.assertTrue(dsAuth.matches(new Dataset("aabbbxcdd")));
+    Assert.assertTrue(dsAuth.matches(new Dataset("ab?c")));
+
+    Assert.assertFalse(dsAuth.matches(new Dataset("abc")));
+    Assert.assertFalse(dsAuth.matches(new Dataset("xabxc")));
+    Assert.assertFalse(dsAuth.matches(new Dataset("ab")));
+
+    Assert.assertTrue(WildcardAuthorizable.globMatches("**", ""));
+    Assert.assertTrue(WildcardAuthorizable.globMatches("*a*a", "aaa"));
+    Assert.assertFalse(WildcardAuthorizable.globMatches("*a*a", "aab"));
+    Assert.assertFalse(WildcardAuthorizable.globMatches("?", ""));
+  }
+
   private static Authorizable toAuth(String type, String name) {
     return ModelAuthorizables.from(type, name);
   }
@@ -17,6 +17,7 @@
 package io.cdap.cdap.security.authorization.sentry.binding;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import io.cdap.cdap.security.authorization.sentry.model.ActionFactory;
 import io.cdap.cdap.security.authorization.sentry.model.Application;
@@ -25,9 +26,14 @@ import io.cdap.cdap.security.authorization.sentry.model.Dataset;
 import io.cdap.cdap.security.authorization.sentry.model.Namespace;
 import io.cdap.cdap.security.authorization.sentry.model.Program;
 import io.cdap.cdap.security.authorization.sentry.policy.ModelAuthorizables;
+import org.apache.sentry.provider.db.generic.service.thrift.TAuthorizable;
+import org.apache.sentry.provider.db.generic.service.thrift.TSentryPrivilege;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Tests {@link WildcardPolicy} with various cases.
  */
@@ -128,6 +134,29 @@ public class WildcardPolicyTest {
                                                            new Program("service.service1"))));
   }
 
+  @Test
+  public void testSharedPolicies() {
+    WildcardPolicy readPolicy = createPolicy("read", toAuth("namespace", "ns1"), toAuth("dataset", "table"));
+    WildcardPolicy writePolicy = createPolicy("write", toAuth("namespace", "ns1"), toAuth("dataset", "other"));
+    Assert.assertSame(readPolicy.getAuthorizables().get(0), writePolicy.getAuthorizables().get(0));
+
+    // the same privilege in several roles is converted to one policy object
+    List<TAuthorizable> authorizables = ImmutableList.of(new TAuthorizable("INSTANCE", "cdap"),
+                                                         new TAuthorizable("NAMESPACE", "*"));
+    Set<WildcardPolicy> role1Policies = AuthBinding.toWildcardPolicies(ImmutableList.of(
+      new TSentryPrivilege("cdap", "cdap", authorizables, "read")));
+    Set<WildcardPolicy> role2Policies = AuthBinding.toWildcardPolicies(ImmutableList.of(
+      new TSentryPrivilege("cdap", "cdap", authorizables, "READ"),
+      new TSentryPrivilege("cdap", "cdap", authorizables, "write")));
+    WildcardPolicy role1Read = Iterables.getOnlyElement(role1Policies);
+    Assert.assertTrue(role2Policies.contains(role1Read));
+    for (WildcardPolicy policy : role2Policies) {
+      if (policy.equals(role1Read)) {
+        Assert.assertSame(role1Read, policy);
+      }
+    }
+  }
+
   private static Authorizable toAuth(String type, String name) {
     return ModelAuthorizables.from(type, name);
   }
@@ -0,0 +1,83 @@
+/*
+ * Copyright © 2022 Cask Data, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package io.cdap.cdap.security.authorization.sentry.binding.metrics;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Test for {@link SentryBindingMetrics}
+ */
+public class SentryBindingMetricsTest {
+
+  @Test
+  public void testRegister() throws Exception {
+    Cache<String, String> cache = CacheBuilder.newBuilder().recordStats().build();
+    cache.put("group1", "role1");
+    cache.getIfPresent("group1");
+    cache.getIfPresent("group2");
+
+    SentryBindingMetrics metrics = new SentryBindingMetrics();
+    metrics.addCache(SentryBindingMetrics.ROLE_CACHE, cache);
+    CommandMetrics fetch = metrics.get(SentryBindingMetrics.ROLE_FETCH);
+    fetch.recordLatency(System.nanoTime());
+    fetch.incrementErrors();
+    fetch.incrementNotFoundErrors();
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    metrics.register();
+    ObjectName commandName = metrics.getObjectName("Command", SentryBindingMetrics.ROLE_FETCH);
+    ObjectName cacheName = metrics.getObjectName("Cache", SentryBindingMetrics.ROLE_CACHE);
+    try {
+      Assert.assertEquals(1L, server.getAttribute(commandName, "Count"));
+      Assert.assertEquals(1L, server.getAttribute(commandName, "Errors"));
+      Assert.assertEquals(1L, server.getAttribute(commandName, "NotFoundErrors"));
+      Assert.assertEquals(0L, server.getAttribute(commandName, "UnauthorizedErrors"));
+      Assert.assertEquals(1L, server.getAttribute(cacheName, "Size"));
+      Assert.assertEquals(1L, server.getAttribute(cacheName, "HitCount"));
+      Assert.assertEquals(1L, server.getAttribute(cacheName, "MissCount"));
+      Assert.assertEquals(0.5, (Double) server.getAttribute(cacheName, "HitRate"), 0.001);
+
+      // another instance registers its own MBeans and leaves those of this instance alone
+      SentryBindingMetrics newMetrics = new SentryBindingMetrics();
+      newMetrics.register();
+      ObjectName newCommandName = newMetrics.getObjectName("Command", SentryBindingMetrics.ROLE_FETCH);
+      Assert.assertNotEquals(commandName, newCommandName);
+      Assert.assertEquals(0L, server.getAttribute(newCommandName, "Count"));
+      Assert.assertEquals(1L, server.getAttribute(commandName, "Count"));
+      newMetrics.unregister();
+      Assert.assertFalse(server.isRegistered(newCommandName));
+      Assert.assertTrue(server.isRegistered(commandName));
+      Assert.assertTrue(server.isRegistered(cacheName));
+    } finally {
+      metrics.unregister();
+    }
+    Assert.assertFalse(server.isRegistered(commandName));
+    Assert.assertFalse(server.isRegistered(cacheName));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnknownCommand() {
+    new SentryBindingMetrics().get("unknown");
+  }
+}